@@ -1,6 +1,8 @@
 package io.github.xxyopen.novel.controller.front;
 
+import io.github.xxyopen.novel.core.auth.UserHolder;
 import io.github.xxyopen.novel.core.common.resp.RestResp;
+import io.github.xxyopen.novel.core.common.util.IpUtils;
 import io.github.xxyopen.novel.core.constant.ApiRouterConsts;
 import io.github.xxyopen.novel.dto.resp.BookCategoryRespDto;
 import io.github.xxyopen.novel.dto.resp.BookChapterAboutRespDto;
@@ -13,8 +15,9 @@ import io.github.xxyopen.novel.service.BookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.security.NoSuchAlgorithmException;
+import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
+import java.util.Objects;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -61,8 +64,22 @@ public class BookController {
      */
     @Operation(summary = "增加小说点击量接口")
     @PostMapping("visit")
-    public RestResp<Void> addVisitCount(@Parameter(description = "小说ID") Long bookId) {
-        return bookService.addVisitCount(bookId);
+    public RestResp<Void> addVisitCount(@Parameter(description = "小说ID") Long bookId,
+        HttpServletRequest request) {
+        // 登录用户按用户ID区分访客，未登录用户按IP区分
+        Long userId = UserHolder.getUserId();
+        String visitor = Objects.nonNull(userId) ? "u" + userId : "ip" + IpUtils.getRealIp(request);
+        return bookService.addVisitCount(bookId, visitor);
+    }
+
+    /**
+     * 小说独立访客数查询接口
+     */
+    @Operation(summary = "小说独立访客数查询接口")
+    @GetMapping("visitor_count")
+    public RestResp<Long> getVisitorCount(@Parameter(description = "小说ID") Long bookId,
+        @Parameter(description = "统计最近几天（包含今天）的访客，默认 1") Integer days) {
+        return bookService.getVisitorCount(bookId, days);
     }
 
     /**
@@ -81,7 +98,7 @@ public class BookController {
     @Operation(summary = "小说推荐列表查询接口")
     @GetMapping("rec_list")
     public RestResp<List<BookInfoRespDto>> listRecBooks(
-        @Parameter(description = "小说ID") Long bookId) throws NoSuchAlgorithmException {
+        @Parameter(description = "小说ID") Long bookId) {
         return bookService.listRecBooks(bookId);
     }
 
@@ -134,6 +151,28 @@ public class BookController {
         return bookService.listVisitRankBooks();
     }
 
+    /**
+     * 小说热度榜查询接口
+     */
+    @Operation(summary = "小说热度榜查询接口")
+    @GetMapping("trending_rank")
+    public RestResp<List<BookRankRespDto>> listTrendingRankBooks() {
+        return bookService.listTrendingRankBooks();
+    }
+
+    /**
+     * 小说周期排行榜查询接口
+     */
+    @Operation(summary = "小说周期排行榜查询接口")
+    @GetMapping("period_rank")
+    public RestResp<List<BookRankRespDto>> listPeriodRankBooks(
+        @Parameter(description = "统计周期 day-日榜 week-周榜 month-月榜", required = true)
+        String period,
+        @Parameter(description = "类别ID") Long categoryId,
+        @Parameter(description = "作品方向 0-男频 1-女频") Integer workDirection) {
+        return bookService.listPeriodRankBooks(period, categoryId, workDirection);
+    }
+
     /**
      * 小说新书榜查询接口
      */
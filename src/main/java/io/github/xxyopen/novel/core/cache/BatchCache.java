@@ -0,0 +1,70 @@
+package io.github.xxyopen.novel.core.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NullValue;
+
+/**
+ * 支持批量查询的缓存
+ */
+public interface BatchCache {
+
+    /**
+     * 批量查询，未命中的 key 通过 loader 一次性加载并放入缓存
+     *
+     * @param keys   要查询的 key
+     * @param loader 批量加载逻辑，返回结果中不包含不存在的 key
+     * @return 查询结果，不包含不存在的 key
+     */
+    <K, V> Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader);
+
+    /**
+     * 批量查询任意缓存：支持批量查询的缓存直接批量查询；Caffeine 缓存使用 Caffeine 的批量加载；其它缓存逐个查询后一次性加载未命中的 key
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> Map<K, V> getAll(Cache cache, Collection<K> keys,
+        Function<Set<K>, Map<K, V>> loader) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        if (cache instanceof BatchCache batchCache) {
+            return batchCache.getAll(keys, loader);
+        }
+        if (cache instanceof CaffeineCache caffeineCache) {
+            Map<Object, Object> values = caffeineCache.getNativeCache()
+                .getAll(keys, missing -> loader.apply((Set<K>) missing));
+            Map<K, V> result = new HashMap<>(values.size());
+            values.forEach((key, value) -> {
+                if (!(value instanceof NullValue)) {
+                    result.put((K) key, (V) value);
+                }
+            });
+            return result;
+        }
+        Map<K, V> result = new HashMap<>(keys.size());
+        Set<K> missing = new LinkedHashSet<>();
+        for (K key : keys) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            if (Objects.nonNull(wrapper) && Objects.nonNull(wrapper.get())) {
+                result.put(key, (V) wrapper.get());
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            loader.apply(missing).forEach((key, value) -> {
+                cache.put(key, value);
+                result.put(key, value);
+            });
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,152 @@
+package io.github.xxyopen.novel.core.cache;
+
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 本地缓存失效广播总线
+ * <p>
+ * 本地缓存（Caffeine）只存在于当前节点，某个节点修改数据后通过 Redis 发布/订阅通知其它节点清除各自的本地缓存。 失效消息先进入待发送队列，每个周期合并成一条消息发送。
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    /**
+     * 当前节点标识，用于忽略自己发出的消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final RedisTemplate<Object, Object> redisTemplate;
+
+    private final CacheManager localCacheManager;
+
+    /**
+     * 待广播的失效项，key 为 null 表示清空整个缓存
+     */
+    private final Queue<Invalidation> pending = new ConcurrentLinkedQueue<>();
+
+    public CacheInvalidationBus(RedisTemplate<Object, Object> redisTemplate,
+        @Qualifier(CacheConsts.CAFFEINE_CACHE_MANAGER) CacheManager localCacheManager) {
+        this.redisTemplate = redisTemplate;
+        this.localCacheManager = localCacheManager;
+    }
+
+    /**
+     * 通知其它节点清除本地缓存中的指定 key
+     */
+    public void publishEvict(String cacheName, Object key) {
+        enqueue(new Invalidation(cacheName, key));
+    }
+
+    /**
+     * 通知其它节点清空指定的本地缓存
+     */
+    public void publishClear(String cacheName) {
+        enqueue(new Invalidation(cacheName, null));
+    }
+
+    /**
+     * 合并待广播的失效项并发送
+     */
+    @Scheduled(fixedDelayString = "${novel.cache.invalidation.flush-interval:100}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, Set<Object>> evictions = new HashMap<>();
+        Set<String> clears = new HashSet<>();
+        Invalidation invalidation;
+        while ((invalidation = pending.poll()) != null) {
+            if (Objects.isNull(invalidation.key())) {
+                clears.add(invalidation.cacheName());
+            } else {
+                evictions.computeIfAbsent(invalidation.cacheName(), k -> new HashSet<>())
+                    .add(invalidation.key());
+            }
+        }
+        try {
+            redisTemplate.convertAndSend(CacheConsts.CACHE_INVALIDATION_CHANNEL,
+                new InvalidationMsg(nodeId, evictions, clears));
+        } catch (Exception e) {
+            // 广播失败时其它节点的本地缓存只能等待过期
+            log.error("缓存失效消息发送失败：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 接收其它节点的失效消息，清除当前节点的本地缓存
+     */
+    @Override
+    public void onMessage(@NonNull Message message, @Nullable byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (!(body instanceof InvalidationMsg msg) || nodeId.equals(msg.nodeId())) {
+            return;
+        }
+        msg.evictions().forEach((cacheName, keys) -> {
+            Cache cache = localCacheManager.getCache(cacheName);
+            if (Objects.nonNull(cache)) {
+                keys.forEach(cache::evict);
+            }
+        });
+        msg.clears().forEach(cacheName -> {
+            Cache cache = localCacheManager.getCache(cacheName);
+            if (Objects.nonNull(cache)) {
+                cache.clear();
+            }
+        });
+    }
+
+    private void enqueue(Invalidation invalidation) {
+        // 如果在事务中则在事务提交后再广播，避免其它节点在提交前重新加载到旧数据
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        pending.offer(invalidation);
+                    }
+                });
+            return;
+        }
+        pending.offer(invalidation);
+    }
+
+    private record Invalidation(String cacheName, Object key) {
+
+    }
+
+    /**
+     * 缓存失效消息
+     */
+    record InvalidationMsg(String nodeId, Map<String, Set<Object>> evictions,
+                           Set<String> clears) implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+    }
+
+}
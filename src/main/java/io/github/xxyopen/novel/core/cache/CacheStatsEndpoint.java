@@ -0,0 +1,137 @@
+package io.github.xxyopen.novel.core.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * 缓存统计端点：按缓存配置（CacheEnum）汇总本地缓存（Caffeine）和远程缓存（Redis）的命中率、加载耗时、淘汰数量和容量
+ * <p>
+ * 访问路径：/actuator/cacheStats、/actuator/cacheStats/{cacheName}
+ */
+@Component
+@Endpoint(id = "cacheStats")
+public class CacheStatsEndpoint {
+
+    private final CacheManager caffeineCacheManager;
+
+    private final CacheManager redisCacheManager;
+
+    public CacheStatsEndpoint(
+        @Qualifier(CacheConsts.CAFFEINE_CACHE_MANAGER) CacheManager caffeineCacheManager,
+        @Qualifier(CacheConsts.REDIS_CACHE_MANAGER) CacheManager redisCacheManager) {
+        this.caffeineCacheManager = caffeineCacheManager;
+        this.redisCacheManager = redisCacheManager;
+    }
+
+    @ReadOperation
+    public Map<String, CacheStatsDescriptor> caches() {
+        Map<String, CacheStatsDescriptor> caches = new LinkedHashMap<>();
+        for (var c : CacheConsts.CacheEnum.values()) {
+            caches.put(c.getName(), describe(c));
+        }
+        return caches;
+    }
+
+    @ReadOperation
+    @Nullable
+    public CacheStatsDescriptor cache(@Selector String name) {
+        return Arrays.stream(CacheConsts.CacheEnum.values())
+            .filter(c -> c.getName().equals(name))
+            .findFirst()
+            .map(this::describe)
+            .orElse(null);
+    }
+
+    private CacheStatsDescriptor describe(CacheConsts.CacheEnum c) {
+        LocalStats local = null;
+        // 开启热点 key 探测的远程缓存，本地缓存为热点 key 的副本
+        Cache localCache = c.isLocal() || c.isHotKey() ? unwrap(
+            caffeineCacheManager.getCache(c.getName())) : null;
+        if (localCache instanceof OffHeapCache offHeapCache) {
+            long requestCount = offHeapCache.hitCount() + offHeapCache.missCount();
+            local = new LocalStats(offHeapCache.estimatedSize(), offHeapCache.weightedSize(),
+                offHeapCache.capacity(), true, offHeapCache.hitCount(), offHeapCache.missCount(),
+                requestCount == 0 ? 1.0 : (double) offHeapCache.hitCount() / requestCount,
+                offHeapCache.putCount(), 0, 0, offHeapCache.evictionCount());
+        } else if (localCache instanceof CaffeineCache caffeineCache) {
+            var nativeCache = caffeineCache.getNativeCache();
+            CacheStats stats = nativeCache.stats();
+            var eviction = nativeCache.policy().eviction().orElseThrow();
+            local = new LocalStats(nativeCache.estimatedSize(),
+                eviction.weightedSize().orElse(0), eviction.getMaximum(), eviction.isWeighted(),
+                stats.hitCount(), stats.missCount(), stats.hitRate(), stats.loadCount(),
+                stats.loadFailureCount(),
+                stats.averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1),
+                stats.evictionCount());
+        }
+        RemoteStats remote = null;
+        if (c.isRemote() && unwrap(redisCacheManager.getCache(c.getName()))
+            instanceof RedisCache redisCache) {
+            CacheStatistics stats = redisCache.getStatistics();
+            remote = new RemoteStats(stats.getGets(), stats.getHits(), stats.getMisses(),
+                stats.getGets() == 0 ? 1.0 : (double) stats.getHits() / stats.getGets(),
+                stats.getPuts(), stats.getDeletes(),
+                stats.getLockWaitDuration(TimeUnit.MILLISECONDS));
+        }
+        return new CacheStatsDescriptor(c.getTtl(), local, remote);
+    }
+
+    /**
+     * 去掉事务和提前刷新的装饰，取出真正存储数据的缓存
+     */
+    @Nullable
+    private Cache unwrap(@Nullable Cache cache) {
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            return unwrap(decorator.getTargetCache());
+        }
+        if (cache instanceof RefreshAheadCache refreshAheadCache) {
+            return unwrap(refreshAheadCache.getDelegate());
+        }
+        return cache;
+    }
+
+    /**
+     * @param ttl    失效时间（秒）
+     * @param local 本地缓存统计，不使用本地缓存时为 null
+     * @param remote 远程缓存统计，不使用远程缓存时为 null
+     */
+    public record CacheStatsDescriptor(int ttl, @Nullable LocalStats local,
+                                       @Nullable RemoteStats remote) {
+
+    }
+
+    /**
+     * 本地缓存统计，按内存占用淘汰（weighted）时 maximum 和 weightedSize 为估算的字节数，否则 maximum 为最大容量；加载耗时单位为毫秒
+     */
+    public record LocalStats(long estimatedSize, long weightedSize, long maximum,
+                             boolean weighted, long hitCount, long missCount,
+                             double hitRate, long loadCount, long loadFailureCount,
+                             double averageLoadPenalty, long evictionCount) {
+
+    }
+
+    /**
+     * 远程缓存统计，锁等待时间单位为毫秒
+     */
+    public record RemoteStats(long gets, long hits, long misses, double hitRate, long puts,
+                              long deletes, long lockWaitDuration) {
+
+    }
+
+}
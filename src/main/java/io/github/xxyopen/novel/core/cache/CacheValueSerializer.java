@@ -0,0 +1,131 @@
+package io.github.xxyopen.novel.core.cache;
+
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+/**
+ * Redis 缓存值序列化器，按缓存配置的编码方式写入，读取时根据首字节识别编码方式
+ * <p>
+ * 格式：[编码标记（1 字节）][数据]。JDK 序列化的数据以 0xAC 开头，不加编码标记，和之前写入的缓存数据兼容，所以修改缓存的编码方式后旧数据仍然可以正常读取。
+ */
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    /**
+     * UTF-8 文本
+     */
+    private static final byte TEXT = 0x01;
+
+    /**
+     * 压缩后的 UTF-8 文本
+     */
+    private static final byte DEFLATED_TEXT = 0x02;
+
+    /**
+     * 压缩后的 JDK 序列化数据
+     */
+    private static final byte DEFLATED_JDK = 0x03;
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+    private final CacheConsts.CodecEnum codec;
+
+    /**
+     * 超过该字节数才压缩，太小的数据压缩后反而可能变大
+     */
+    private final int compressThreshold;
+
+    public CacheValueSerializer(CacheConsts.CodecEnum codec, int compressThreshold) {
+        this.codec = codec;
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] serialize(@Nullable Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (codec == CacheConsts.CodecEnum.TEXT && value instanceof String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            return bytes.length < compressThreshold ? withMarker(TEXT, bytes)
+                : withMarker(DEFLATED_TEXT, deflate(bytes));
+        }
+        byte[] bytes = jdkSerializer.serialize(value);
+        if (codec == CacheConsts.CodecEnum.JDK || bytes.length < compressThreshold) {
+            return bytes;
+        }
+        return withMarker(DEFLATED_JDK, deflate(bytes));
+    }
+
+    @Override
+    @Nullable
+    public Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        return switch (bytes[0]) {
+            case TEXT -> new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+            case DEFLATED_TEXT -> new String(inflate(bytes), StandardCharsets.UTF_8);
+            case DEFLATED_JDK -> jdkSerializer.deserialize(inflate(bytes));
+            default -> jdkSerializer.deserialize(bytes);
+        };
+    }
+
+    private static byte[] withMarker(byte marker, byte[] data) {
+        byte[] bytes = new byte[data.length + 1];
+        bytes[0] = marker;
+        System.arraycopy(data, 0, bytes, 1, data.length);
+        return bytes;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        // 缓存读多写少，但写入发生在请求线程中，优先保证压缩速度
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 解压去掉编码标记后的数据
+     */
+    private static byte[] inflate(byte[] bytes) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, 1, bytes.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("Cannot inflate cache value: truncated data");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new SerializationException("Cannot inflate cache value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
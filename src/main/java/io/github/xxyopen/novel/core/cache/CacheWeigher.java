@@ -0,0 +1,154 @@
+package io.github.xxyopen.novel.core.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.springframework.lang.NonNull;
+
+/**
+ * 缓存项内存占用估算（字节），用于按内存容量淘汰本地缓存
+ * <p>
+ * 只做估算，不追求精确：字符串按 UTF-16 计算，集合和 DTO 递归累加元素和字段，不能识别的对象按固定大小计算。
+ */
+public final class CacheWeigher implements Weigher<Object, Object> {
+
+    public static final CacheWeigher INSTANCE = new CacheWeigher();
+
+    /**
+     * 对象头 + 对齐
+     */
+    private static final int OBJECT_OVERHEAD = 16;
+
+    /**
+     * 引用大小（压缩指针）
+     */
+    private static final int REFERENCE_SIZE = 4;
+
+    /**
+     * 不能识别的对象的估算大小
+     */
+    private static final int UNKNOWN_OBJECT_SIZE = 32;
+
+    /**
+     * 递归估算的最大深度，避免循环引用和过深的对象图
+     */
+    private static final int MAX_DEPTH = 4;
+
+    /**
+     * 每个 DTO 类的实例字段
+     */
+    private static final ClassValue<Field[]> FIELDS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(@NonNull Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && field.trySetAccessible()) {
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields.toArray(Field[]::new);
+        }
+    };
+
+    private CacheWeigher() {
+    }
+
+    @Override
+    public int weigh(@NonNull Object key, @NonNull Object value) {
+        long size = estimate(key, 0) + estimate(value, 0);
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static long estimate(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String s) {
+            return OBJECT_OVERHEAD + 24 + 2L * s.length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character
+            || value instanceof Enum<?>) {
+            return OBJECT_OVERHEAD;
+        }
+        if (value instanceof Temporal) {
+            return UNKNOWN_OBJECT_SIZE + OBJECT_OVERHEAD;
+        }
+        if (value.getClass().isArray()) {
+            return estimateArray(value, depth);
+        }
+        if (depth >= MAX_DEPTH) {
+            return UNKNOWN_OBJECT_SIZE;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = OBJECT_OVERHEAD + 24;
+            for (Object element : collection) {
+                size += REFERENCE_SIZE + estimate(element, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = OBJECT_OVERHEAD + 48;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += 32 + estimate(entry.getKey(), depth + 1)
+                    + estimate(entry.getValue(), depth + 1);
+            }
+            return size;
+        }
+        if (value.getClass().getName().startsWith("java.")) {
+            return UNKNOWN_OBJECT_SIZE;
+        }
+        return estimateFields(value, depth);
+    }
+
+    private static long estimateArray(Object array, int depth) {
+        if (array instanceof long[] a) {
+            return OBJECT_OVERHEAD + 8L * a.length;
+        }
+        if (array instanceof int[] a) {
+            return OBJECT_OVERHEAD + 4L * a.length;
+        }
+        if (array instanceof byte[] a) {
+            return OBJECT_OVERHEAD + a.length;
+        }
+        if (array instanceof char[] a) {
+            return OBJECT_OVERHEAD + 2L * a.length;
+        }
+        if (array instanceof Object[] a) {
+            long size = OBJECT_OVERHEAD + (long) REFERENCE_SIZE * a.length;
+            if (depth < MAX_DEPTH) {
+                for (Object element : a) {
+                    size += estimate(element, depth + 1);
+                }
+            }
+            return size;
+        }
+        // 其它基本类型数组
+        return OBJECT_OVERHEAD + 8L * Array.getLength(array);
+    }
+
+    private static long estimateFields(Object value, int depth) {
+        long size = OBJECT_OVERHEAD;
+        for (Field field : FIELDS.get(value.getClass())) {
+            if (field.getType().isPrimitive()) {
+                size += 8;
+                continue;
+            }
+            size += REFERENCE_SIZE;
+            try {
+                size += estimate(field.get(value), depth + 1);
+            } catch (IllegalAccessException e) {
+                size += UNKNOWN_OBJECT_SIZE;
+            }
+        }
+        return size;
+    }
+
+}
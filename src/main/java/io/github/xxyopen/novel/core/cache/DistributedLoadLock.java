@@ -0,0 +1,53 @@
+package io.github.xxyopen.novel.core.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+/**
+ * 缓存加载分布式锁：同一个缓存 key 在整个集群中同一时刻只有一个加载逻辑在执行
+ * <p>
+ * 等锁超时后不再等待，直接执行加载逻辑，优先保证可用性。
+ */
+@Slf4j
+public class DistributedLoadLock {
+
+    private static final String KEY_PREFIX = "Lock::cacheLoad::";
+
+    private static final String KEY_SEPARATOR = "::";
+
+    private final RedissonClient redissonClient;
+
+    /**
+     * 等锁时间（秒）
+     */
+    private final long waitTime;
+
+    public DistributedLoadLock(RedissonClient redissonClient, long waitTime) {
+        this.redissonClient = redissonClient;
+        this.waitTime = waitTime;
+    }
+
+    public <T> T execute(String cacheName, Object key, Callable<T> loader) throws Exception {
+        RLock lock = redissonClient.getLock(KEY_PREFIX + cacheName + KEY_SEPARATOR + key);
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(waitTime, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!locked) {
+            log.warn("缓存加载等锁超时，直接加载：{}::{}", cacheName, key);
+        }
+        try {
+            return loader.call();
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+package io.github.xxyopen.novel.core.cache;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.cache.Cache;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * 热点 key 本地副本缓存：远程缓存（Redis）中的热点 key 在每个节点上复制一份短时间有效的本地副本，避免单个 key 的访问集中到同一个 Redis 节点
+ * <p>
+ * 读：先查本地副本，未命中再查远程缓存，探测为热点的 key 写入本地副本；副本过期后如果仍然是热点会被重新写入，访问量下降后不再写入（降级）。
+ * 写：写远程缓存，清除本地副本，并通知其它节点清除各自的副本。
+ * <p>
+ * 缓存方法需要使用 @Cacheable(sync = true)：未命中时通过 {@link #get(Object, Callable)} 加载并只写入远程缓存，不广播失效通知；
+ * 不开启 sync 时每次未命中后的回填都会调用 {@link #put(Object, Object)}，向所有节点广播一次失效通知。
+ */
+public class HotKeyCache implements Cache {
+
+    private final String name;
+
+    private final Cache remoteCache;
+
+    /**
+     * 热点 key 的本地副本（短时间有效）
+     */
+    private final Cache replicaCache;
+
+    private final HotKeyDetector detector;
+
+    private final CacheInvalidationBus invalidationBus;
+
+    /**
+     * 正在加载的 key
+     */
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loadings =
+        new ConcurrentHashMap<>();
+
+    public HotKeyCache(String name, Cache remoteCache, Cache replicaCache,
+        HotKeyDetector detector, CacheInvalidationBus invalidationBus) {
+        this.name = name;
+        this.remoteCache = remoteCache;
+        this.replicaCache = replicaCache;
+        this.detector = detector;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    @NonNull
+    public Object getNativeCache() {
+        return this;
+    }
+
+    public Cache getRemoteCache() {
+        return remoteCache;
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(@NonNull Object key) {
+        detector.record(key);
+        ValueWrapper wrapper = replicaCache.get(key);
+        if (Objects.nonNull(wrapper)) {
+            return wrapper;
+        }
+        wrapper = remoteCache.get(key);
+        if (Objects.nonNull(wrapper)) {
+            promoteIfHot(key, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Nullable
+    public <T> T get(@NonNull Object key, @Nullable Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = Objects.nonNull(wrapper) ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * 同步加载（@Cacheable(sync = true)）：同一个节点上同一个 key 只有一个线程执行加载逻辑，其它线程等待加载结果；
+     * 加载结果只写入远程缓存（不缓存 null 值），其它节点的副本中不可能有这个 key，不需要广播失效通知
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    @Nullable
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        detector.record(key);
+        ValueWrapper wrapper = replicaCache.get(key);
+        if (Objects.nonNull(wrapper)) {
+            return (T) wrapper.get();
+        }
+        wrapper = remoteCache.get(key);
+        if (Objects.nonNull(wrapper)) {
+            promoteIfHot(key, wrapper.get());
+            return (T) wrapper.get();
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loadings.putIfAbsent(key, future);
+        if (Objects.nonNull(inFlight)) {
+            // 等待正在进行的加载
+            try {
+                return (T) inFlight.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        try {
+            T value = valueLoader.call();
+            if (Objects.nonNull(value)) {
+                remoteCache.put(key, value);
+            }
+            promoteIfHot(key, value);
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loadings.remove(key, future);
+        }
+    }
+
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        // 远程缓存不缓存 null 值
+        if (Objects.nonNull(value)) {
+            remoteCache.put(key, value);
+        }
+        replicaCache.evict(key);
+        invalidationBus.publishEvict(name, key);
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+        ValueWrapper existing = get(key);
+        if (Objects.nonNull(existing)) {
+            return existing;
+        }
+        put(key, value);
+        return null;
+    }
+
+    @Override
+    public void evict(@NonNull Object key) {
+        remoteCache.evict(key);
+        replicaCache.evict(key);
+        invalidationBus.publishEvict(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(@NonNull Object key) {
+        boolean remoteEvicted = remoteCache.evictIfPresent(key);
+        replicaCache.evict(key);
+        invalidationBus.publishEvict(name, key);
+        return remoteEvicted;
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        replicaCache.clear();
+        invalidationBus.publishClear(name);
+    }
+
+    private void promoteIfHot(Object key, @Nullable Object value) {
+        if (Objects.nonNull(value) && detector.isHot(key)) {
+            replicaCache.put(key, value);
+        }
+    }
+
+}
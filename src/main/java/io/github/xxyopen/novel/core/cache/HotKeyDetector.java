@@ -0,0 +1,100 @@
+package io.github.xxyopen.novel.core.cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 热点 key 探测：对访问进行采样，用 Count-Min Sketch 估算每个 key 在当前时间窗口内的访问次数
+ * <p>
+ * 每个时间窗口结束时所有计数减半，访问量下降的 key 会逐渐变为非热点。
+ */
+public class HotKeyDetector {
+
+    private static final int DEPTH = 4;
+
+    private static final int WIDTH = 4096;
+
+    /**
+     * 采样率 1/SAMPLE_RATE
+     */
+    private static final int SAMPLE_RATE = 8;
+
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL,
+        0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    private final AtomicIntegerArray counters = new AtomicIntegerArray(DEPTH * WIDTH);
+
+    /**
+     * 热点阈值（采样后的访问次数）
+     */
+    private final int sampledThreshold;
+
+    /**
+     * 时间窗口（毫秒）
+     */
+    private final long window;
+
+    private final AtomicLong nextDecayTime;
+
+    /**
+     * @param threshold 时间窗口内的访问次数超过该阈值即为热点
+     * @param window    时间窗口（毫秒）
+     */
+    public HotKeyDetector(int threshold, long window) {
+        this.sampledThreshold = Math.max(threshold / SAMPLE_RATE, 1);
+        this.window = window;
+        this.nextDecayTime = new AtomicLong(System.currentTimeMillis() + window);
+    }
+
+    /**
+     * 记录一次访问
+     */
+    public void record(Object key) {
+        decayIfNeeded();
+        if (ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0) {
+            return;
+        }
+        int hash = key.hashCode();
+        for (int i = 0; i < DEPTH; i++) {
+            int index = index(i, hash);
+            // 计数达到阈值的两倍后不再增加，避免热点 key 降温太慢
+            if (counters.get(index) < sampledThreshold << 1) {
+                counters.incrementAndGet(index);
+            }
+        }
+    }
+
+    public boolean isHot(Object key) {
+        return estimate(key) >= sampledThreshold;
+    }
+
+    private int estimate(Object key) {
+        int hash = key.hashCode();
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, counters.get(index(i, hash)));
+        }
+        return min;
+    }
+
+    private static int index(int row, int hash) {
+        long h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+        return row * WIDTH + (int) ((h >>> 40) & (WIDTH - 1));
+    }
+
+    private void decayIfNeeded() {
+        long now = System.currentTimeMillis();
+        long next = nextDecayTime.get();
+        if (now < next || !nextDecayTime.compareAndSet(next, now + window)) {
+            return;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            int value = counters.get(i);
+            if (value > 0) {
+                counters.set(i, value >>> 1);
+            }
+        }
+    }
+
+}
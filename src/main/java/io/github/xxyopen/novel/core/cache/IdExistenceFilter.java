@@ -0,0 +1,173 @@
+package io.github.xxyopen.novel.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 自增 ID 存在性过滤器：布隆过滤器 + 最大 ID 水位线 + 不存在 ID 的短期缓存，用于在查询缓存和数据库之前拦截不存在的 ID，防止缓存穿透
+ * <p>
+ * 水位线减去同步回退数量以内的 ID 都已经加载到布隆过滤器中，不在布隆过滤器中的一定不存在；水位线附近和超过水位线的 ID
+ * 可能是其它节点新增的，或者是提交较晚的事务占用的，按同步间隔从数据库增量加载，不在布隆过滤器中时仍然放行，
+ * 由调用方查询数据库，查询不到时调用 {@link #markMissing(long)} 短期拦截。加载完成之前所有 ID 都放行。
+ */
+@Slf4j
+public class IdExistenceFilter {
+
+    /**
+     * 增量同步时回退的 ID 数量，覆盖同步时还未提交的事务占用的 ID；水位线以下这个范围内的 ID 不确定是否存在
+     */
+    static final long SYNC_OVERLAP = 1000;
+
+    private final String name;
+
+    private final long expectedInsertions;
+
+    private final double fpp;
+
+    /**
+     * 按 ID 升序分批查询大于指定 ID 的 ID 列表，返回空列表表示没有更多数据
+     */
+    private final LongFunction<List<Long>> idsAfter;
+
+    /**
+     * 增量同步间隔（毫秒）
+     */
+    private final long syncInterval;
+
+    private final AtomicLong nextSyncTime = new AtomicLong();
+
+    /**
+     * 确认不存在的 ID（例如已删除的 ID 和布隆过滤器误判的 ID）
+     */
+    private final Cache<Long, Boolean> missingIds;
+
+    private volatile LongBloomFilter bloomFilter;
+
+    /**
+     * 水位线：已加载到布隆过滤器中的最大 ID
+     */
+    private volatile long maxId;
+
+    public IdExistenceFilter(String name, long expectedInsertions, double fpp,
+        LongFunction<List<Long>> idsAfter, long syncInterval, long missingTtl,
+        long missingMaxSize) {
+        this.name = name;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.idsAfter = idsAfter;
+        this.syncInterval = syncInterval;
+        this.missingIds = Caffeine.newBuilder().maximumSize(missingMaxSize)
+            .expireAfterWrite(Duration.ofSeconds(missingTtl)).build();
+    }
+
+    /**
+     * 全量加载
+     */
+    public void load() {
+        long start = System.currentTimeMillis();
+        LongBloomFilter filter = new LongBloomFilter(expectedInsertions, fpp);
+        long loadedMaxId = loadAfter(filter, 0);
+        this.maxId = loadedMaxId;
+        this.bloomFilter = filter;
+        nextSyncTime.set(System.currentTimeMillis() + syncInterval);
+        log.info("{} ID 过滤器加载完成，最大 ID：{}，耗时：{}ms", name, loadedMaxId,
+            System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 判断 ID 是否可能存在，返回 false 时一定不存在
+     */
+    public boolean mightExist(Long id) {
+        if (id == null || id <= 0) {
+            return false;
+        }
+        if (missingIds.getIfPresent(id) != null) {
+            return false;
+        }
+        LongBloomFilter filter = this.bloomFilter;
+        if (filter == null || filter.mightContain(id)) {
+            return true;
+        }
+        if (id <= maxId - SYNC_OVERLAP) {
+            return false;
+        }
+        // 水位线附近或超过水位线，可能是其它节点新增或者提交较晚的 ID，触发增量同步，并放行到数据库查询
+        sync(filter);
+        return true;
+    }
+
+    /**
+     * 判断 ID 是否已经加载到过滤器中（可能误判），不确定的 ID 同步后仍不在过滤器中时返回 false；
+     * 用于不查询数据库的场景（例如统计），其它节点新增的 ID 在下次同步后才返回 true
+     */
+    public boolean isLoaded(Long id) {
+        if (id == null || id <= 0) {
+            return false;
+        }
+        if (missingIds.getIfPresent(id) != null) {
+            return false;
+        }
+        LongBloomFilter filter = this.bloomFilter;
+        if (filter == null || filter.mightContain(id)) {
+            return true;
+        }
+        if (id <= maxId - SYNC_OVERLAP) {
+            return false;
+        }
+        sync(filter);
+        return filter.mightContain(id);
+    }
+
+    /**
+     * 新增 ID
+     */
+    public void add(long id) {
+        LongBloomFilter filter = this.bloomFilter;
+        if (filter != null) {
+            filter.put(id);
+        }
+        missingIds.invalidate(id);
+    }
+
+    /**
+     * 标记 ID 不存在（已删除或者布隆过滤器误判）
+     */
+    public void markMissing(long id) {
+        missingIds.put(id, Boolean.TRUE);
+    }
+
+    private void sync(LongBloomFilter filter) {
+        long now = System.currentTimeMillis();
+        long next = nextSyncTime.get();
+        // 同步间隔内只有一个线程执行同步，其它线程直接按当前数据判断
+        if (now < next || !nextSyncTime.compareAndSet(next, now + syncInterval)) {
+            return;
+        }
+        try {
+            long syncedMaxId = loadAfter(filter, Math.max(maxId - SYNC_OVERLAP, 0));
+            if (syncedMaxId > maxId) {
+                maxId = syncedMaxId;
+            }
+        } catch (Exception e) {
+            log.error("{} ID 过滤器同步失败", name, e);
+        }
+    }
+
+    private long loadAfter(LongBloomFilter filter, long fromId) {
+        long lastId = fromId;
+        List<Long> ids;
+        while (!(ids = idsAfter.apply(lastId)).isEmpty()) {
+            for (Long id : ids) {
+                filter.put(id);
+            }
+            lastId = ids.get(ids.size() - 1);
+        }
+        return lastId;
+    }
+
+}
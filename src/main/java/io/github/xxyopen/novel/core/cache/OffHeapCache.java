@@ -0,0 +1,324 @@
+package io.github.xxyopen.novel.core.cache;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * 堆外本地缓存：缓存值编码（压缩）后写入堆外内存（DirectByteBuffer），堆内只保留索引，适合章节内容这类数量多、体积大的缓存
+ * <p>
+ * 堆外内存划分为多个固定大小的分片（slab），按顺序追加写入当前分片，写满后切换到下一个分片；所有分片写满后循环复用最旧的分片，
+ * 最旧分片中的缓存项全部淘汰（FIFO）。读取最旧分片中的缓存项时会把它重新写入当前分片，避免热点数据被淘汰。
+ * <p>
+ * 读取不加锁：分片每次复用时版本号加一，读取数据后校验版本号，版本号变化说明读取期间分片被复用，按未命中处理。
+ */
+public class OffHeapCache implements Cache {
+
+    private final String name;
+
+    private final ByteBuffer[] slabs;
+
+    private final int slabSize;
+
+    /**
+     * 分片版本号，分片每次复用时加一
+     */
+    private final AtomicIntegerArray generations;
+
+    /**
+     * 每个分片中写入的 key，复用分片时从索引中删除
+     */
+    private final Set<Object>[] slabKeys;
+
+    /**
+     * 失效时间（毫秒） 0-永不失效
+     */
+    private final long ttl;
+
+    private final RedisSerializer<Object> serializer;
+
+    private final Map<Object, Entry> index = new ConcurrentHashMap<>();
+
+    /**
+     * 正在加载的 key，同一个 key 只有一个线程执行加载逻辑
+     */
+    private final Map<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder putCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 当前写入的分片和位置，写入时加锁
+     */
+    private volatile int currentSlab;
+
+    private int writeOffset;
+
+    /**
+     * @param capacity   堆外内存容量（字节）
+     * @param slabSize   分片大小（字节），超过分片大小的缓存值不缓存
+     * @param ttl        失效时间（秒） 0-永不失效
+     * @param serializer 缓存值编码
+     */
+    @SuppressWarnings("unchecked")
+    public OffHeapCache(String name, long capacity, int slabSize, long ttl,
+        RedisSerializer<Object> serializer) {
+        int slabCount = (int) Math.max(capacity / slabSize, 2);
+        this.name = name;
+        this.slabSize = slabSize;
+        this.slabs = new ByteBuffer[slabCount];
+        this.slabKeys = new Set[slabCount];
+        for (int i = 0; i < slabCount; i++) {
+            slabs[i] = ByteBuffer.allocateDirect(slabSize);
+            slabKeys[i] = new HashSet<>();
+        }
+        this.generations = new AtomicIntegerArray(slabCount);
+        this.ttl = ttl * 1000;
+        this.serializer = serializer;
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    @NonNull
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(@NonNull Object key) {
+        byte[] bytes = read(key);
+        if (Objects.isNull(bytes)) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return new SimpleValueWrapper(serializer.deserialize(bytes));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Nullable
+    public <T> T get(@NonNull Object key, @Nullable Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = Objects.nonNull(wrapper) ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Nullable
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (Objects.nonNull(wrapper)) {
+            return (T) wrapper.get();
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = loading.putIfAbsent(key, future);
+        if (Objects.nonNull(existing)) {
+            // 其它线程正在加载，等待加载结果
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        try {
+            T value = valueLoader.call();
+            put(key, value);
+            future.complete(value);
+            return value;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        if (Objects.isNull(value)) {
+            evict(key);
+            return;
+        }
+        write(key, serializer.serialize(value));
+        putCount.increment();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+        ValueWrapper existing = get(key);
+        if (Objects.nonNull(existing)) {
+            return existing;
+        }
+        put(key, value);
+        return null;
+    }
+
+    @Override
+    public void evict(@NonNull Object key) {
+        index.remove(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(@NonNull Object key) {
+        return index.remove(key) != null;
+    }
+
+    @Override
+    public void clear() {
+        // 分片中的数据不需要清除，复用分片时直接覆盖
+        index.clear();
+    }
+
+    public long estimatedSize() {
+        return index.size();
+    }
+
+    /**
+     * 有效缓存项占用的堆外内存（字节）
+     */
+    public long weightedSize() {
+        return index.values().stream().mapToLong(Entry::length).sum();
+    }
+
+    /**
+     * 堆外内存容量（字节）
+     */
+    public long capacity() {
+        return (long) slabs.length * slabSize;
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    public long putCount() {
+        return putCount.sum();
+    }
+
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    @Nullable
+    private byte[] read(Object key) {
+        Entry entry = index.get(key);
+        if (Objects.isNull(entry)) {
+            return null;
+        }
+        if (ttl > 0 && System.currentTimeMillis() - entry.writeTime() > ttl) {
+            index.remove(key, entry);
+            return null;
+        }
+        byte[] bytes = new byte[entry.length()];
+        slabs[entry.slab()].get(entry.offset(), bytes);
+        // 读取数据之后再校验版本号，保证读到的数据属于该版本
+        VarHandle.loadLoadFence();
+        if (generations.get(entry.slab()) != entry.generation()) {
+            index.remove(key, entry);
+            return null;
+        }
+        if (isOldest(entry.slab())) {
+            promote(key, entry, bytes);
+        }
+        return bytes;
+    }
+
+    private boolean isOldest(int slab) {
+        return slab == (currentSlab + 1) % slabs.length;
+    }
+
+    /**
+     * 把即将被淘汰的缓存项重新写入当前分片
+     */
+    private synchronized void promote(Object key, Entry entry, byte[] bytes) {
+        // 加锁后确认缓存项没有被修改或删除
+        if (index.get(key) == entry && generations.get(entry.slab()) == entry.generation()) {
+            append(key, bytes, entry.writeTime());
+        }
+    }
+
+    private synchronized void write(Object key, byte[] bytes) {
+        if (bytes.length > slabSize) {
+            // 超过分片大小，不缓存
+            index.remove(key);
+            return;
+        }
+        append(key, bytes, System.currentTimeMillis());
+    }
+
+    private void append(Object key, byte[] bytes, long writeTime) {
+        if (writeOffset + bytes.length > slabSize) {
+            nextSlab();
+        }
+        slabs[currentSlab].put(writeOffset, bytes);
+        index.put(key,
+            new Entry(currentSlab, generations.get(currentSlab), writeOffset, bytes.length,
+                writeTime));
+        slabKeys[currentSlab].add(key);
+        writeOffset += bytes.length;
+    }
+
+    /**
+     * 切换到下一个分片，淘汰其中的所有缓存项
+     */
+    private void nextSlab() {
+        int next = (currentSlab + 1) % slabs.length;
+        generations.incrementAndGet(next);
+        // 先更新版本号再覆盖数据，读取线程才能发现分片已被复用
+        VarHandle.storeStoreFence();
+        for (Object key : slabKeys[next]) {
+            Entry entry = index.get(key);
+            // 已经重新写入其它分片的缓存项不淘汰
+            if (Objects.nonNull(entry) && entry.slab() == next && index.remove(key, entry)) {
+                evictionCount.increment();
+            }
+        }
+        slabKeys[next].clear();
+        currentSlab = next;
+        writeOffset = 0;
+    }
+
+    /**
+     * 缓存项在堆外内存中的位置
+     */
+    private record Entry(int slab, int generation, int offset, int length, long writeTime) {
+
+    }
+
+}
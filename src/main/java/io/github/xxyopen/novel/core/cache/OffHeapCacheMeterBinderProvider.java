@@ -0,0 +1,69 @@
+package io.github.xxyopen.novel.core.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * 堆外缓存的指标绑定
+ */
+@Component
+public class OffHeapCacheMeterBinderProvider implements CacheMeterBinderProvider<OffHeapCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(OffHeapCache cache, Iterable<Tag> tags) {
+        return new OffHeapCacheMetrics(cache, tags);
+    }
+
+    static class OffHeapCacheMetrics extends CacheMeterBinder<OffHeapCache> {
+
+        OffHeapCacheMetrics(OffHeapCache cache, Iterable<Tag> tags) {
+            super(cache, cache.getName(), tags);
+        }
+
+        @Override
+        protected Long size() {
+            OffHeapCache cache = getCache();
+            return cache == null ? null : cache.estimatedSize();
+        }
+
+        @Override
+        protected long hitCount() {
+            OffHeapCache cache = getCache();
+            return cache == null ? 0 : cache.hitCount();
+        }
+
+        @Override
+        protected Long missCount() {
+            OffHeapCache cache = getCache();
+            return cache == null ? null : cache.missCount();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            OffHeapCache cache = getCache();
+            return cache == null ? null : cache.evictionCount();
+        }
+
+        @Override
+        protected long putCount() {
+            OffHeapCache cache = getCache();
+            return cache == null ? 0 : cache.putCount();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+            Gauge.builder("cache.off.heap.capacity", getCache(), OffHeapCache::capacity)
+                .tags(getTagsWithCacheName())
+                .description("The off-heap memory reserved by the cache")
+                .baseUnit("bytes")
+                .register(registry);
+        }
+
+    }
+
+}
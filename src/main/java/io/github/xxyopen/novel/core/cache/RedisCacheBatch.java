@@ -0,0 +1,158 @@
+package io.github.xxyopen.novel.core.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Redis 缓存批量读写：RedisCache 只支持单个 key 的读写，这里按 RedisCache 的配置（key 前缀、序列化方式、失效时间）直接批量读写同一份数据
+ * <p>
+ * 批量读取使用 MGET，批量写入使用管道，一批 key 只需要一次网络往返；单个 key 的原地修改使用 WATCH/MULTI/EXEC 乐观锁。
+ * 每个 key 的读取、命中、未命中和写入和 RedisCache 一样记入缓存统计。
+ */
+public class RedisCacheBatch {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    /**
+     * 和 RedisCacheWriter 使用同一个统计收集器
+     */
+    private final CacheStatisticsCollector statistics;
+
+    public RedisCacheBatch(RedisConnectionFactory connectionFactory,
+        CacheStatisticsCollector statistics) {
+        this.connectionFactory = connectionFactory;
+        this.statistics = statistics;
+    }
+
+    /**
+     * 批量读取，返回结果中只包含命中的 key
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAll(RedisCache cache, List<K> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        byte[][] rawKeys = keys.stream().map(key -> serializeKey(cache, key))
+            .toArray(byte[][]::new);
+        List<byte[]> rawValues;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            rawValues = connection.stringCommands().mGet(rawKeys);
+        }
+        Map<K, V> result = new HashMap<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            statistics.incGets(cache.getName());
+            byte[] rawValue = Objects.nonNull(rawValues) && i < rawValues.size()
+                ? rawValues.get(i) : null;
+            if (Objects.isNull(rawValue)) {
+                statistics.incMisses(cache.getName());
+                continue;
+            }
+            statistics.incHits(cache.getName());
+            Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(rawValue));
+            if (Objects.nonNull(value)) {
+                result.put(keys.get(i), (V) value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量写入（不写入 null 值）
+     */
+    public void putAll(RedisCache cache, Map<?, ?> values) {
+        List<byte[][]> entries = new ArrayList<>(values.size());
+        values.forEach((key, value) -> {
+            if (Objects.nonNull(value)) {
+                entries.add(new byte[][]{serializeKey(cache, key), serializeValue(cache, value)});
+            }
+        });
+        if (entries.isEmpty()) {
+            return;
+        }
+        Expiration expiration = expiration(cache);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            for (byte[][] entry : entries) {
+                connection.stringCommands().set(entry[0], entry[1], expiration, SetOption.upsert());
+                statistics.incPuts(cache.getName());
+            }
+            connection.closePipeline();
+        }
+    }
+
+    /**
+     * 在缓存的现有值上修改：WATCH 后读取当前值，修改后通过 MULTI/EXEC 写回，WATCH 之后 key 被其它客户端修改或删除时 EXEC 放弃写入
+     *
+     * @return 写入的新值；key 不存在或并发冲突时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    public <V> V update(RedisCache cache, Object key, UnaryOperator<V> updater) {
+        byte[] rawKey = serializeKey(cache, key);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.watch(rawKey);
+            byte[] rawValue = connection.stringCommands().get(rawKey);
+            statistics.incGets(cache.getName());
+            if (Objects.isNull(rawValue)) {
+                statistics.incMisses(cache.getName());
+            } else {
+                statistics.incHits(cache.getName());
+            }
+            V value = Objects.nonNull(rawValue) ? (V) cache.getCacheConfiguration()
+                .getValueSerializationPair().read(ByteBuffer.wrap(rawValue)) : null;
+            if (Objects.isNull(value)) {
+                connection.unwatch();
+                return null;
+            }
+            V updated = updater.apply(value);
+            connection.multi();
+            connection.stringCommands().set(rawKey, serializeValue(cache, updated),
+                expiration(cache), SetOption.upsert());
+            // 事务被放弃时 EXEC 没有返回结果
+            if (CollectionUtils.isEmpty(connection.exec())) {
+                return null;
+            }
+            statistics.incPuts(cache.getName());
+            return updated;
+        }
+    }
+
+    /**
+     * 和 RedisCache 生成的 key 保持一致：缓存名前缀 + key 转换成的字符串
+     */
+    private static byte[] serializeKey(RedisCache cache, Object key) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        String stringKey = key instanceof String s ? s
+            : config.getConversionService().convert(key, String.class);
+        return ByteUtils.getBytes(config.getKeySerializationPair()
+            .write(config.getKeyPrefixFor(cache.getName()) + stringKey));
+    }
+
+    private static byte[] serializeValue(RedisCache cache, Object value) {
+        return ByteUtils.getBytes(cache.getCacheConfiguration().getValueSerializationPair()
+            .write(value));
+    }
+
+    private static Expiration expiration(RedisCache cache) {
+        Duration ttl = cache.getCacheConfiguration().getTtl();
+        return ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl);
+    }
+
+}
@@ -0,0 +1,196 @@
+package io.github.xxyopen.novel.core.cache;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * 提前刷新缓存：缓存项存在时间超过刷新阈值后，命中时仍然返回旧值，同时在后台线程池中异步重新加载并覆盖旧值
+ * <p>
+ * 重新加载直接调用注册的缓存方法（@Cacheable 标注的 bean 方法，参数由缓存 key 还原），不保留请求线程传入的加载逻辑；
+ * 二级缓存刷新后只写入远程缓存和本节点的本地缓存，不广播失效通知。
+ */
+@Slf4j
+public class RefreshAheadCache implements Cache {
+
+    private final Cache delegate;
+
+    /**
+     * 用于获取缓存项存在时间的本地缓存
+     */
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+
+    /**
+     * 刷新阈值（毫秒）
+     */
+    private final long refreshAfter;
+
+    private final Executor executor;
+
+    /**
+     * 缓存方法，未注册时不刷新
+     */
+    @Nullable
+    private volatile MethodLoader loader;
+
+    /**
+     * 正在刷新的 key，避免重复提交刷新任务
+     */
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    public RefreshAheadCache(Cache delegate,
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache, long refreshAfter,
+        Executor executor) {
+        this.delegate = delegate;
+        this.localCache = localCache;
+        this.refreshAfter = refreshAfter;
+        this.executor = executor;
+    }
+
+    /**
+     * 注册缓存方法，只支持使用默认 key 生成规则且最多一个（非数组）参数的方法
+     *
+     * @param target 缓存方法所在的 bean（代理的目标对象，调用时不再经过缓存拦截）
+     * @param method 缓存方法
+     */
+    public void registerLoader(Object target, Method method) {
+        if (method.getParameterCount() > 1) {
+            throw new IllegalArgumentException("提前刷新只支持最多一个参数的缓存方法：" + method);
+        }
+        this.loader = new MethodLoader(target, method);
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    @NonNull
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(@NonNull Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (Objects.nonNull(wrapper)) {
+            refreshIfNeeded(key);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @Nullable
+    public <T> T get(@NonNull Object key, @Nullable Class<T> type) {
+        T value = delegate.get(key, type);
+        if (Objects.nonNull(value)) {
+            refreshIfNeeded(key);
+        }
+        return value;
+    }
+
+    @Override
+    @Nullable
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        T value = delegate.get(key, valueLoader);
+        refreshIfNeeded(key);
+        return value;
+    }
+
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(@NonNull Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(@NonNull Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    private void refreshIfNeeded(Object key) {
+        MethodLoader loader = this.loader;
+        if (Objects.isNull(loader) || !isAboutToExpire(key) || !refreshing.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    Object value = loader.load(key);
+                    if (delegate instanceof TwoLevelCache twoLevelCache) {
+                        twoLevelCache.refresh(key, value);
+                    } else {
+                        delegate.put(key, value);
+                    }
+                } catch (Throwable e) {
+                    // 刷新失败时继续使用旧值，直到缓存过期后由请求线程重新加载
+                    log.warn("缓存提前刷新失败：{}::{}", getName(), key, e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 线程池已满，本次不刷新
+            refreshing.remove(key);
+        }
+    }
+
+    private boolean isAboutToExpire(Object key) {
+        return localCache.policy().expireAfterWrite()
+            .map(p -> p.ageOf(key, TimeUnit.MILLISECONDS))
+            .filter(age -> age.isPresent() && age.getAsLong() >= refreshAfter)
+            .isPresent();
+    }
+
+    /**
+     * 缓存方法：默认 key 生成规则下单参数方法的缓存 key 即参数本身
+     */
+    private record MethodLoader(Object target, Method method) {
+
+        Object load(Object key) throws Throwable {
+            // 单个参数为 null 时缓存 key 为 SimpleKey(null)
+            Object[] args = method.getParameterCount() == 0 ? new Object[0]
+                : new Object[]{key instanceof SimpleKey ? null : key};
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+package io.github.xxyopen.novel.core.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+/**
+ * 提前刷新缓存的指标绑定：本地缓存直接绑定 Caffeine 的统计指标
+ * <p>
+ * 二级缓存的本地缓存和远程缓存已经分别在 Caffeine 和 Redis 缓存管理器下绑定了指标，这里不再重复绑定。
+ */
+@Component
+public class RefreshAheadCacheMeterBinderProvider implements
+    CacheMeterBinderProvider<RefreshAheadCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(RefreshAheadCache cache, Iterable<Tag> tags) {
+        if (cache.getDelegate() instanceof CaffeineCache caffeineCache) {
+            return new CaffeineCacheMetrics<>(caffeineCache.getNativeCache(), cache.getName(),
+                tags);
+        }
+        return null;
+    }
+
+}
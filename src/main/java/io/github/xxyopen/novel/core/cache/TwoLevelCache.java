@@ -0,0 +1,357 @@
+package io.github.xxyopen.novel.core.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 二级缓存：本地缓存（Caffeine）+ 远程缓存（Redis）
+ * <p>
+ * 读：先查本地缓存，未命中再查远程缓存（命中后回填本地缓存），都未命中才执行加载逻辑；写：同时写入两级缓存，并通知其它节点清除各自的本地缓存。
+ */
+public class TwoLevelCache implements Cache, BatchCache {
+
+    private final String name;
+
+    /**
+     * 一级缓存（本地）
+     */
+    private final Cache localCache;
+
+    /**
+     * 二级缓存（远程）
+     */
+    private final Cache remoteCache;
+
+    private final CacheInvalidationBus invalidationBus;
+
+    /**
+     * 缓存加载分布式锁，为 null 时只在当前节点内合并加载
+     */
+    @Nullable
+    private final DistributedLoadLock loadLock;
+
+    private final RedisCacheBatch remoteBatch;
+
+    /**
+     * 正在加载的 key
+     */
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loadings =
+        new ConcurrentHashMap<>();
+
+    public TwoLevelCache(String name, Cache localCache, Cache remoteCache,
+        CacheInvalidationBus invalidationBus, @Nullable DistributedLoadLock loadLock,
+        RedisCacheBatch remoteBatch) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationBus = invalidationBus;
+        this.loadLock = loadLock;
+        this.remoteBatch = remoteBatch;
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    @NonNull
+    public Object getNativeCache() {
+        return this;
+    }
+
+    public Cache getLocalCache() {
+        return localCache;
+    }
+
+    public Cache getRemoteCache() {
+        return remoteCache;
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(@NonNull Object key) {
+        ValueWrapper wrapper = localCache.get(key);
+        if (Objects.nonNull(wrapper)) {
+            return wrapper;
+        }
+        wrapper = remoteCache.get(key);
+        if (Objects.nonNull(wrapper)) {
+            // 远程缓存命中，回填本地缓存
+            localCache.put(key, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Nullable
+    public <T> T get(@NonNull Object key, @Nullable Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = Objects.nonNull(wrapper) ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * 同步加载（@Cacheable(sync = true)）：同一个节点上同一个 key 只有一个线程去查远程缓存和执行加载逻辑，其它线程等待加载结果；
+     * 开启分布式锁后，整个集群中同一个 key 只有一个节点执行加载逻辑，其它节点拿到锁后直接读取远程缓存
+     * <p>
+     * 远程查询、等锁和加载都在本地缓存的原子操作之外执行，不会阻塞本地缓存中其它 key 的读写
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    @Nullable
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        ValueWrapper wrapper = localCache.get(key);
+        if (Objects.nonNull(wrapper)) {
+            return (T) wrapper.get();
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loadings.putIfAbsent(key, future);
+        if (Objects.nonNull(inFlight)) {
+            // 等待正在进行的加载
+            try {
+                return (T) inFlight.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        try {
+            // 拿到加载权之前可能刚好有其它线程加载完成
+            wrapper = localCache.get(key);
+            Object value = Objects.nonNull(wrapper) ? wrapper.get() : load(key, valueLoader);
+            if (Objects.isNull(wrapper)) {
+                localCache.put(key, value);
+            }
+            future.complete(value);
+            return (T) value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loadings.remove(key, future);
+        }
+    }
+
+    private <T> T load(Object key, Callable<T> valueLoader) throws Exception {
+        T value = getRemote(key);
+        if (Objects.nonNull(value)) {
+            return value;
+        }
+        if (Objects.isNull(loadLock)) {
+            return loadAndPutRemote(key, valueLoader);
+        }
+        return loadLock.execute(name, key, () -> {
+            // 拿到锁后再查一次远程缓存，可能已经被其它节点加载过了
+            T loaded = getRemote(key);
+            if (Objects.nonNull(loaded)) {
+                return loaded;
+            }
+            return loadAndPutRemote(key, valueLoader);
+        });
+    }
+
+    /**
+     * 批量查询：本地缓存逐个查询，未命中的 key 通过一次 MGET 查询远程缓存，仍未命中的 key 一次性加载后通过管道批量写入远程缓存
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <K, V> Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>(keys.size());
+        List<K> localMissing = new ArrayList<>();
+        for (K key : new LinkedHashSet<>(keys)) {
+            ValueWrapper wrapper = localCache.get(key);
+            if (Objects.nonNull(wrapper) && Objects.nonNull(wrapper.get())) {
+                result.put(key, (V) wrapper.get());
+            } else {
+                localMissing.add(key);
+            }
+        }
+        if (localMissing.isEmpty()) {
+            return result;
+        }
+        RedisCache redisCache = unwrapRedisCache();
+        Map<K, V> remoteValues = Objects.nonNull(redisCache)
+            ? remoteBatch.getAll(redisCache, localMissing) : Map.of();
+        Set<K> remoteMissing = new LinkedHashSet<>();
+        for (K key : localMissing) {
+            V value = remoteValues.get(key);
+            if (Objects.nonNull(value)) {
+                // 远程缓存命中，回填本地缓存
+                localCache.put(key, value);
+                result.put(key, value);
+            } else {
+                remoteMissing.add(key);
+            }
+        }
+        if (remoteMissing.isEmpty()) {
+            return result;
+        }
+        Map<K, V> loaded = loader.apply(remoteMissing);
+        if (Objects.nonNull(redisCache)) {
+            remoteBatch.putAll(redisCache, loaded);
+        } else {
+            loaded.forEach(this::putRemote);
+        }
+        loaded.forEach((key, value) -> {
+            if (Objects.nonNull(value)) {
+                localCache.put(key, value);
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 远程缓存是事务感知的，事务中的写入在提交后才生效，本地缓存也在提交后再写入，避免提交前（或回滚后）本地缓存和远程缓存不一致
+     */
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        putRemote(key, value);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            localCache.evict(key);
+            afterCommit(() -> localCache.put(key, value));
+        } else {
+            localCache.put(key, value);
+        }
+        invalidationBus.publishEvict(name, key);
+    }
+
+    /**
+     * 提前刷新：只写入远程缓存和本节点的本地缓存，不广播失效通知，其它节点的本地缓存在过期或各自提前刷新时更新
+     */
+    public void refresh(@NonNull Object key, @Nullable Object value) {
+        putRemote(key, value);
+        localCache.put(key, value);
+    }
+
+    /**
+     * 在远程缓存的现有值上修改，不清除缓存重新加载：通过乐观锁写回远程缓存，成功后更新本节点的本地缓存并通知其它节点清除各自的本地缓存；
+     * 远程缓存中没有这个 key 或修改期间被并发修改时改为清除缓存，下次查询时重新加载
+     * <p>
+     * 修改基于已提交的数据，事务中需要在提交后调用
+     *
+     * @return 是否修改成功
+     */
+    public <T> boolean update(@NonNull Object key, UnaryOperator<T> updater) {
+        RedisCache redisCache = unwrapRedisCache();
+        T updated = Objects.nonNull(redisCache) ? remoteBatch.update(redisCache, key, updater)
+            : null;
+        if (Objects.isNull(updated)) {
+            evict(key);
+            return false;
+        }
+        localCache.put(key, updated);
+        invalidationBus.publishEvict(name, key);
+        return true;
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(@NonNull Object key, @Nullable Object value) {
+        ValueWrapper existing = get(key);
+        if (Objects.nonNull(existing)) {
+            return existing;
+        }
+        put(key, value);
+        return null;
+    }
+
+    /**
+     * 事务中的远程缓存清除在提交后才执行，提交前并发请求可能用旧的远程值或数据库中提交前的数据回填本地缓存，所以提交后再清除一次本地缓存
+     */
+    @Override
+    public void evict(@NonNull Object key) {
+        remoteCache.evict(key);
+        localCache.evict(key);
+        afterCommit(() -> localCache.evict(key));
+        invalidationBus.publishEvict(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(@NonNull Object key) {
+        boolean remoteEvicted = remoteCache.evictIfPresent(key);
+        boolean localEvicted = localCache.evictIfPresent(key);
+        afterCommit(() -> localCache.evict(key));
+        invalidationBus.publishEvict(name, key);
+        return localEvicted || remoteEvicted;
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.clear();
+        afterCommit(localCache::clear);
+        invalidationBus.publishClear(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private <T> T getRemote(Object key) {
+        ValueWrapper wrapper = remoteCache.get(key);
+        return Objects.nonNull(wrapper) ? (T) wrapper.get() : null;
+    }
+
+    /**
+     * 如果当前在事务中则在事务提交后执行
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                });
+        }
+    }
+
+    @Nullable
+    private RedisCache unwrapRedisCache() {
+        Cache cache = remoteCache instanceof TransactionAwareCacheDecorator decorator
+            ? decorator.getTargetCache() : remoteCache;
+        return cache instanceof RedisCache redisCache ? redisCache : null;
+    }
+
+    private <T> T loadAndPutRemote(Object key, Callable<T> valueLoader) throws Exception {
+        T value = valueLoader.call();
+        putRemote(key, value);
+        return value;
+    }
+
+    /**
+     * 远程缓存不缓存 null 值
+     */
+    private void putRemote(Object key, @Nullable Object value) {
+        if (Objects.nonNull(value)) {
+            remoteCache.put(key, value);
+        }
+    }
+
+}
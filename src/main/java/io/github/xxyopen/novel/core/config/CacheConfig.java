@@ -1,22 +1,54 @@
 package io.github.xxyopen.novel.core.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.xxyopen.novel.NovelApplication;
+import io.github.xxyopen.novel.core.cache.CacheInvalidationBus;
+import io.github.xxyopen.novel.core.cache.CacheValueSerializer;
+import io.github.xxyopen.novel.core.cache.CacheWeigher;
+import io.github.xxyopen.novel.core.cache.DistributedLoadLock;
+import io.github.xxyopen.novel.core.cache.HotKeyCache;
+import io.github.xxyopen.novel.core.cache.HotKeyDetector;
+import io.github.xxyopen.novel.core.cache.OffHeapCache;
+import io.github.xxyopen.novel.core.cache.RedisCacheBatch;
+import io.github.xxyopen.novel.core.cache.RefreshAheadCache;
+import io.github.xxyopen.novel.core.cache.TwoLevelCache;
 import io.github.xxyopen.novel.core.constant.CacheConsts;
+import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.redisson.api.RedissonClient;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * 缓存配置类
@@ -28,24 +60,59 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 public class CacheConfig {
 
     /**
-     * Caffeine 缓存管理器
+     * 堆外缓存分片大小
+     */
+    private static final int OFF_HEAP_SLAB_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * 缓存提前刷新线程池：线程数和队列都有界，队列满时放弃本次刷新（继续返回旧值）
+     */
+    private final ThreadPoolExecutor cacheRefreshExecutor = new ThreadPoolExecutor(2, 2,
+        0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(64), cacheRefreshThreadFactory());
+
+    /**
+     * Redis 缓存统计，RedisCache 的单个读写和 RedisCacheBatch 的批量读写共用
+     */
+    private final CacheStatisticsCollector redisCacheStatistics = CacheStatisticsCollector.create();
+
+    /**
+     * Caffeine 缓存管理器（本地缓存），开启堆外内存的缓存使用堆外缓存，开启热点 key 探测的远程缓存在这里保存热点 key 的本地副本
      */
     @Bean
     @Primary
-    public CacheManager caffeineCacheManager() {
+    public CacheManager caffeineCacheManager(
+        @Value("${novel.cache.codec.compress-threshold:512}") int compressThreshold,
+        @Value("${novel.cache.hot-key.replica-ttl:5}") long hotKeyReplicaTtl,
+        @Value("${novel.cache.hot-key.replica-max-size:1000}") int hotKeyReplicaMaxSize) {
 //        创建一个SimpleCacheManager对象作为缓存管理器的实例
         SimpleCacheManager cacheManager = new SimpleCacheManager();
 
-        List<CaffeineCache> caches = new ArrayList<>(CacheConsts.CacheEnum.values().length);
+        List<Cache> caches = new ArrayList<>(CacheConsts.CacheEnum.values().length);
         // 类型推断 var 非常适合 for 循环，JDK 10 引入，JDK 11 改进
         for (var c : CacheConsts.CacheEnum.values()) {
-            if (c.isLocal()) {
-                Caffeine<Object, Object> caffeine = Caffeine.newBuilder().recordStats()
-                    .maximumSize(c.getMaxSize());
+            if (c.isHotKey()) {
+                caches.add(new CaffeineCache(c.getName(), Caffeine.newBuilder().recordStats()
+                    .maximumSize(hotKeyReplicaMaxSize)
+                    .expireAfterWrite(Duration.ofSeconds(hotKeyReplicaTtl)).build()));
+            } else if (c.isLocal() && c.isOffHeap()) {
+                caches.add(new OffHeapCache(c.getName(), c.getMaxWeight(), OFF_HEAP_SLAB_SIZE,
+                    c.getTtl(), new CacheValueSerializer(c.getCodec(), compressThreshold)));
+            } else if (c.isLocal()) {
+                Caffeine<Object, Object> caffeine = Caffeine.newBuilder().recordStats();
+                if (c.getMaxWeight() > 0) {
+                    // 按估算的内存占用淘汰，大章节和小章节占用的容量不同
+                    caffeine = caffeine.maximumWeight(c.getMaxWeight())
+                        .weigher(CacheWeigher.INSTANCE);
+                } else {
+                    caffeine.maximumSize(c.getMaxSize());
+                }
                 if (c.getTtl() > 0) {
                     caffeine.expireAfterWrite(Duration.ofSeconds(c.getTtl()));
                 }
-                caches.add(new CaffeineCache(c.getName(), caffeine.build()));
+                CaffeineCache cache = new CaffeineCache(c.getName(), caffeine.build());
+                // 本地和远程类型的缓存在二级缓存管理器中开启提前刷新，这里只作为二级缓存的本地缓存
+                caches.add(c.isRefreshAhead() && !c.isTwoLevel() ? refreshAhead(c, cache, cache)
+                    : cache);
             }
         }
 
@@ -57,9 +124,11 @@ public class CacheConfig {
      * Redis 缓存管理器
      */
     @Bean
-    public CacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+        @Value("${novel.cache.codec.compress-threshold:512}") int compressThreshold) {
+        // 开启统计，命中、未命中等指标通过 Actuator 公开
         RedisCacheWriter redisCacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(
-            connectionFactory);
+            connectionFactory).withStatisticsCollector(redisCacheStatistics);
 
         RedisCacheConfiguration defaultCacheConfig = RedisCacheConfiguration.defaultCacheConfig()
             .disableCachingNullValues().prefixCacheNameWith(CacheConsts.REDIS_CACHE_PREFIX);
@@ -69,16 +138,13 @@ public class CacheConfig {
         // 类型推断 var 非常适合 for 循环，JDK 10 引入，JDK 11 改进
         for (var c : CacheConsts.CacheEnum.values()) {
             if (c.isRemote()) {
+                RedisCacheConfiguration cacheConfig = defaultCacheConfig.serializeValuesWith(
+                    SerializationPair.fromSerializer(
+                        new CacheValueSerializer(c.getCodec(), compressThreshold)));
                 if (c.getTtl() > 0) {
-                    cacheMap.put(c.getName(),
-                        RedisCacheConfiguration.defaultCacheConfig().disableCachingNullValues()
-                            .prefixCacheNameWith(CacheConsts.REDIS_CACHE_PREFIX)
-                            .entryTtl(Duration.ofSeconds(c.getTtl())));
-                } else {
-                    cacheMap.put(c.getName(),
-                        RedisCacheConfiguration.defaultCacheConfig().disableCachingNullValues()
-                            .prefixCacheNameWith(CacheConsts.REDIS_CACHE_PREFIX));
+                    cacheConfig = cacheConfig.entryTtl(Duration.ofSeconds(c.getTtl()));
                 }
+                cacheMap.put(c.getName(), cacheConfig);
             }
         }
 
@@ -89,4 +155,108 @@ public class CacheConfig {
         return redisCacheManager;
     }
 
+    /**
+     * 二级缓存管理器：管理类型为"本地和远程"的缓存，以及开启热点 key 探测的远程缓存，本地缓存和远程缓存分别取自 Caffeine 和 Redis 缓存管理器
+     */
+    @Bean
+    public CacheManager twoLevelCacheManager(
+        @Qualifier(CacheConsts.CAFFEINE_CACHE_MANAGER) CacheManager caffeineCacheManager,
+        @Qualifier(CacheConsts.REDIS_CACHE_MANAGER) CacheManager redisCacheManager,
+        CacheInvalidationBus cacheInvalidationBus, RedissonClient redissonClient,
+        RedisConnectionFactory connectionFactory,
+        @Value("${novel.cache.load-lock.wait-time:3}") long loadLockWaitTime,
+        @Value("${novel.cache.hot-key.threshold:100}") int hotKeyThreshold,
+        @Value("${novel.cache.hot-key.window:1000}") long hotKeyWindow) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        DistributedLoadLock loadLock = new DistributedLoadLock(redissonClient, loadLockWaitTime);
+        RedisCacheBatch remoteBatch = new RedisCacheBatch(connectionFactory,
+            redisCacheStatistics);
+
+        List<Cache> caches = new ArrayList<>(CacheConsts.CacheEnum.values().length);
+        // 类型推断 var 非常适合 for 循环，JDK 10 引入，JDK 11 改进
+        for (var c : CacheConsts.CacheEnum.values()) {
+            if (c.isTwoLevel()) {
+                Cache localCache = caffeineCacheManager.getCache(c.getName());
+                TwoLevelCache cache = new TwoLevelCache(c.getName(), localCache,
+                    redisCacheManager.getCache(c.getName()), cacheInvalidationBus,
+                    c.isDistributedLoad() ? loadLock : null, remoteBatch);
+                caches.add(c.isRefreshAhead() && localCache instanceof CaffeineCache caffeineCache
+                    ? refreshAhead(c, cache, caffeineCache) : cache);
+            } else if (c.isHotKey()) {
+                caches.add(new HotKeyCache(c.getName(), redisCacheManager.getCache(c.getName()),
+                    caffeineCacheManager.getCache(c.getName()),
+                    new HotKeyDetector(hotKeyThreshold, hotKeyWindow), cacheInvalidationBus));
+            }
+        }
+
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+
+    /**
+     * 订阅本地缓存失效广播
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+        RedisConnectionFactory connectionFactory, CacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationBus,
+            new ChannelTopic(CacheConsts.CACHE_INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    /**
+     * 开启提前刷新，通过本地缓存判断缓存项的存在时间
+     */
+    private Cache refreshAhead(CacheConsts.CacheEnum c, Cache cache, CaffeineCache localCache) {
+        return new RefreshAheadCache(cache, localCache.getNativeCache(), c.getRefreshAfter(),
+            cacheRefreshExecutor);
+    }
+
+    /**
+     * 为开启提前刷新的缓存注册缓存方法：所有单例 bean 创建完成后扫描本项目中 @Cacheable 标注的方法，刷新时直接调用代理的目标对象
+     */
+    @Bean
+    public SmartInitializingSingleton refreshAheadLoaderRegistrar(
+        ApplicationContext applicationContext) {
+        return () -> {
+            for (String beanName : applicationContext.getBeanDefinitionNames()) {
+                Class<?> beanType = applicationContext.getType(beanName);
+                if (Objects.isNull(beanType) || !beanType.getName()
+                    .startsWith(NovelApplication.class.getPackageName())) {
+                    continue;
+                }
+                ReflectionUtils.doWithMethods(ClassUtils.getUserClass(beanType),
+                    method -> registerRefreshLoader(applicationContext, beanName, method),
+                    method -> AnnotatedElementUtils.hasAnnotation(method, Cacheable.class));
+            }
+        };
+    }
+
+    private static void registerRefreshLoader(ApplicationContext applicationContext,
+        String beanName, Method method) {
+        Cacheable cacheable = AnnotatedElementUtils.findMergedAnnotation(method, Cacheable.class);
+        if (Objects.isNull(cacheable) || !cacheable.key().isEmpty()
+            || !cacheable.keyGenerator().isEmpty()) {
+            return;
+        }
+        CacheManager cacheManager = cacheable.cacheManager().isEmpty()
+            ? applicationContext.getBean(CacheManager.class)
+            : applicationContext.getBean(cacheable.cacheManager(), CacheManager.class);
+        for (String cacheName : cacheable.cacheNames()) {
+            if (cacheManager.getCache(cacheName) instanceof RefreshAheadCache cache) {
+                Object bean = applicationContext.getBean(beanName);
+                Object target = AopProxyUtils.getSingletonTarget(bean);
+                cache.registerLoader(Objects.nonNull(target) ? target : bean, method);
+            }
+        }
+    }
+
+    private static CustomizableThreadFactory cacheRefreshThreadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-refresh-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
 }
@@ -61,7 +61,9 @@ public class WebConfig implements WebMvcConfigurer {
         // Token 解析拦截器
         registry.addInterceptor(tokenParseInterceptor)
             // 拦截小说内容查询接口，需要解析 token 以判断该用户是否有权阅读该章节（付费章节是否已购买）
-            .addPathPatterns(ApiRouterConsts.API_FRONT_BOOK_URL_PREFIX + "/content/*")
+            .addPathPatterns(ApiRouterConsts.API_FRONT_BOOK_URL_PREFIX + "/content/*",
+                // 拦截增加小说点击量接口，需要解析 token 以按用户统计独立访客
+                ApiRouterConsts.API_FRONT_BOOK_URL_PREFIX + "/visit")
             .order(3);
 
     }
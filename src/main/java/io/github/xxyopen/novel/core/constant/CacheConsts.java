@@ -14,6 +14,11 @@ public class CacheConsts {
     public static final String REDIS_CACHE_PREFIX = "Cache::Novel::";
 
 
+    /**
+     * 本地缓存失效广播频道
+     */
+    public static final String CACHE_INVALIDATION_CHANNEL = REDIS_CACHE_PREFIX + "invalidation";
+
     /**
      * Caffeine 缓存管理器
      */
@@ -24,6 +29,11 @@ public class CacheConsts {
      */
     public static final String REDIS_CACHE_MANAGER = "redisCacheManager";
 
+    /**
+     * 二级缓存管理器（Caffeine + Redis）
+     */
+    public static final String TWO_LEVEL_CACHE_MANAGER = "twoLevelCacheManager";
+
     /**
      * 首页小说推荐缓存
      */
@@ -39,6 +49,36 @@ public class CacheConsts {
      */
     public static final String BOOK_VISIT_RANK_CACHE_NAME = "bookVisitRankCache";
 
+    /**
+     * 小说点击榜 KEY（有序集合）
+     */
+    public static final String BOOK_VISIT_RANK_KEY = REDIS_CACHE_PREFIX + "bookVisitRank";
+
+    /**
+     * 小说每日点击量 KEY 前缀（有序集合，后接日期）
+     */
+    public static final String BOOK_DAY_VISIT_KEY = REDIS_CACHE_PREFIX + "bookDayVisit::";
+
+    /**
+     * 小说排行榜快照缓存（日榜、周榜、月榜及各分类、频道榜单）
+     */
+    public static final String BOOK_RANK_SNAPSHOT_CACHE_NAME = "bookRankSnapshotCache";
+
+    /**
+     * 小说热度榜缓存
+     */
+    public static final String BOOK_TRENDING_RANK_CACHE_NAME = "bookTrendingRankCache";
+
+    /**
+     * 小说热度分数快照 KEY（哈希）
+     */
+    public static final String BOOK_TRENDING_KEY = REDIS_CACHE_PREFIX + "bookTrending";
+
+    /**
+     * 小说同读推荐模型 KEY（哈希，小说ID -> 逗号分隔的相似小说ID）
+     */
+    public static final String BOOK_CO_READ_KEY = REDIS_CACHE_PREFIX + "bookCoRead";
+
     /**
      * 小说新书榜缓存
      */
@@ -69,22 +109,47 @@ public class CacheConsts {
      */
     public static final String BOOK_CHAPTER_CACHE_NAME = "bookChapterCache";
 
+    /**
+     * 小说章节目录缓存
+     */
+    public static final String BOOK_CHAPTER_DIRECTORY_CACHE_NAME = "bookChapterDirectoryCache";
+
     /**
      * 小说内容缓存
      */
     public static final String BOOK_CONTENT_CACHE_NAME = "bookContentCache";
 
+    /**
+     * 小说内容摘要缓存
+     */
+    public static final String BOOK_CONTENT_SUMMARY_CACHE_NAME = "bookContentSummaryCache";
+
     /**
      * 最近更新小说ID列表缓存
      */
     public static final String LAST_UPDATE_BOOK_ID_LIST_CACHE_NAME = "lastUpdateBookIdListCache";
 
+    /**
+     * 小说搜索结果缓存
+     */
+    public static final String BOOK_SEARCH_RESULT_CACHE_NAME = "bookSearchResultCache";
+
+    /**
+     * 小说搜索结果缓存 key 生成器
+     */
+    public static final String BOOK_SEARCH_KEY_GENERATOR = "bookSearchKeyGenerator";
+
     /**
      * 图片验证码缓存 KEY
      */
     public static final String IMG_VERIFY_CODE_CACHE_KEY =
         REDIS_CACHE_PREFIX + "imgVerifyCodeCache::";
 
+    /**
+     * 小说每日访客 KEY（HyperLogLog）
+     */
+    public static final String BOOK_VISITOR_CACHE_KEY = REDIS_CACHE_PREFIX + "bookVisitor::";
+
     /**
      * 用户信息缓存
      */
@@ -100,31 +165,52 @@ public class CacheConsts {
      */
     public enum CacheEnum {
 
-        HOME_BOOK_CACHE(0, HOME_BOOK_CACHE_NAME, 60 * 60 * 24, 1),
+        HOME_BOOK_CACHE(0, HOME_BOOK_CACHE_NAME, 60 * 60 * 24, 1, options().refreshAhead(80)),
 
         LATEST_NEWS_CACHE(0, LATEST_NEWS_CACHE_NAME, 60 * 10, 1),
 
-        BOOK_VISIT_RANK_CACHE(2, BOOK_VISIT_RANK_CACHE_NAME, 60 * 60 * 6, 1),
+        BOOK_VISIT_RANK_CACHE(1, BOOK_VISIT_RANK_CACHE_NAME, 60, 1,
+            options().refreshAhead(80).codec(CodecEnum.COMPRESSED)),
 
-        BOOK_NEWEST_RANK_CACHE(0, BOOK_NEWEST_RANK_CACHE_NAME, 60 * 30, 1),
+        BOOK_RANK_SNAPSHOT_CACHE(1, BOOK_RANK_SNAPSHOT_CACHE_NAME, 60 * 60 * 24, 1,
+            options().codec(CodecEnum.COMPRESSED)),
 
-        BOOK_UPDATE_RANK_CACHE(0, BOOK_UPDATE_RANK_CACHE_NAME, 60, 1),
+        BOOK_TRENDING_RANK_CACHE(0, BOOK_TRENDING_RANK_CACHE_NAME, 30, 1),
 
-        HOME_FRIEND_LINK_CACHE(2, HOME_FRIEND_LINK_CACHE_NAME, 0, 1),
+        BOOK_NEWEST_RANK_CACHE(0, BOOK_NEWEST_RANK_CACHE_NAME, 60 * 30, 1,
+            options().refreshAhead(80)),
+
+        BOOK_UPDATE_RANK_CACHE(0, BOOK_UPDATE_RANK_CACHE_NAME, 60, 1, options().refreshAhead(80)),
+
+        HOME_FRIEND_LINK_CACHE(2, HOME_FRIEND_LINK_CACHE_NAME, 0, 1,
+            options().codec(CodecEnum.COMPRESSED).hotKey()),
 
         BOOK_CATEGORY_LIST_CACHE(0, BOOK_CATEGORY_LIST_CACHE_NAME, 0, 2),
 
-        BOOK_INFO_CACHE(0, BOOK_INFO_CACHE_NAME, 60 * 60 * 18, 500),
+        BOOK_INFO_CACHE(1, BOOK_INFO_CACHE_NAME, 60 * 60 * 18, 500,
+            options().codec(CodecEnum.COMPRESSED)),
 
         BOOK_CHAPTER_CACHE(0, BOOK_CHAPTER_CACHE_NAME, 60 * 60 * 6, 5000),
 
-        BOOK_CONTENT_CACHE(2, BOOK_CONTENT_CACHE_NAME, 60 * 60 * 12, 3000),
+        BOOK_CHAPTER_DIRECTORY_CACHE(1, BOOK_CHAPTER_DIRECTORY_CACHE_NAME, 60 * 60 * 6, 1000,
+            options().codec(CodecEnum.COMPRESSED).maxWeight(32 * 1024 * 1024)),
+
+        BOOK_CONTENT_CACHE(1, BOOK_CONTENT_CACHE_NAME, 60 * 60 * 12, 3000,
+            options().distributedLoad().codec(CodecEnum.TEXT).maxWeight(64 * 1024 * 1024)
+                .offHeap()),
+
+        BOOK_CONTENT_SUMMARY_CACHE(1, BOOK_CONTENT_SUMMARY_CACHE_NAME, 60 * 60 * 12, 5000,
+            options().codec(CodecEnum.TEXT)),
 
         LAST_UPDATE_BOOK_ID_LIST_CACHE(0, LAST_UPDATE_BOOK_ID_LIST_CACHE_NAME, 60 * 60, 10),
 
-        USER_INFO_CACHE(2, USER_INFO_CACHE_NAME, 60 * 60 * 24, 10000),
+        BOOK_SEARCH_RESULT_CACHE(0, BOOK_SEARCH_RESULT_CACHE_NAME, 60, 10000),
+
+        USER_INFO_CACHE(2, USER_INFO_CACHE_NAME, 60 * 60 * 24, 10000,
+            options().codec(CodecEnum.COMPRESSED).hotKey()),
 
-        AUTHOR_INFO_CACHE(2, AUTHOR_INFO_CACHE_NAME, 60 * 60 * 48, 1000);
+        AUTHOR_INFO_CACHE(2, AUTHOR_INFO_CACHE_NAME, 60 * 60 * 48, 1000,
+            options().codec(CodecEnum.COMPRESSED));
 
         /**
          * 缓存类型 0-本地 1-本地和远程 2-远程
@@ -142,12 +228,50 @@ public class CacheConsts {
          * 最大容量
          */
         private int maxSize;
+        /**
+         * 本地缓存最大内存占用（字节，按估算值计算；堆外缓存为实际占用的堆外内存） 0-不限制；设置后按内存占用淘汰，最大容量（maxSize）对本地缓存不再生效
+         */
+        private long maxWeight;
+        /**
+         * 本地缓存是否使用堆外内存（需要设置 maxWeight），缓存值按远程缓存的编码方式编码后存储，不占用堆内存
+         */
+        private boolean offHeap;
+        /**
+         * 是否开启热点 key 探测（只对远程类型的缓存生效），热点 key 在每个节点上保存一份短时间有效的本地副本
+         */
+        private boolean hotKey;
+        /**
+         * 缓存未命中时是否使用分布式锁加载（只对本地和远程类型的缓存生效），保证整个集群中同一个 key 只有一个节点执行加载逻辑
+         */
+        private boolean distributedLoad;
+        /**
+         * 提前刷新阈值（占失效时间的百分比） 0-不提前刷新；缓存项存在时间超过该阈值后，命中时异步重新加载，加载期间继续返回旧值
+         */
+        private int refreshAhead;
+        /**
+         * 远程缓存值的编码方式
+         */
+        private CodecEnum codec;
 
         CacheEnum(int type, String name, int ttl, int maxSize) {
+            this(type, name, ttl, maxSize, options());
+        }
+
+        CacheEnum(int type, String name, int ttl, int maxSize, Options options) {
             this.type = type;
             this.name = name;
             this.ttl = ttl;
             this.maxSize = maxSize;
+            this.distributedLoad = options.distributedLoad;
+            this.refreshAhead = options.refreshAhead;
+            this.codec = options.codec;
+            this.maxWeight = options.maxWeight;
+            this.offHeap = options.offHeap;
+            this.hotKey = options.hotKey;
+        }
+
+        private static Options options() {
+            return new Options();
         }
 
         public boolean isLocal() {
@@ -158,6 +282,10 @@ public class CacheConsts {
             return type >= 1;
         }
 
+        public boolean isTwoLevel() {
+            return type == 1;
+        }
+
         public String getName() {
             return name;
         }
@@ -170,6 +298,108 @@ public class CacheConsts {
             return maxSize;
         }
 
+        public long getMaxWeight() {
+            return maxWeight;
+        }
+
+        public boolean isOffHeap() {
+            return offHeap && maxWeight > 0;
+        }
+
+        public boolean isHotKey() {
+            return hotKey && type == 2;
+        }
+
+        public boolean isDistributedLoad() {
+            return distributedLoad;
+        }
+
+        public boolean isRefreshAhead() {
+            return isLocal() && ttl > 0 && refreshAhead > 0;
+        }
+
+        /**
+         * 提前刷新阈值（毫秒）
+         */
+        public long getRefreshAfter() {
+            return ttl * 10L * refreshAhead;
+        }
+
+        public CodecEnum getCodec() {
+            return codec;
+        }
+
+        /**
+         * 缓存的可选配置，未设置的配置使用默认值（JDK 序列化，其它功能均不开启）
+         */
+        private static final class Options {
+
+            private long maxWeight;
+
+            private boolean offHeap;
+
+            private boolean hotKey;
+
+            private boolean distributedLoad;
+
+            private int refreshAhead;
+
+            private CodecEnum codec = CodecEnum.JDK;
+
+            Options maxWeight(long maxWeight) {
+                this.maxWeight = maxWeight;
+                return this;
+            }
+
+            Options offHeap() {
+                this.offHeap = true;
+                return this;
+            }
+
+            Options hotKey() {
+                this.hotKey = true;
+                return this;
+            }
+
+            Options distributedLoad() {
+                this.distributedLoad = true;
+                return this;
+            }
+
+            Options refreshAhead(int refreshAhead) {
+                this.refreshAhead = refreshAhead;
+                return this;
+            }
+
+            Options codec(CodecEnum codec) {
+                this.codec = codec;
+                return this;
+            }
+
+        }
+
+    }
+
+    /**
+     * 远程缓存值编码方式
+     */
+    public enum CodecEnum {
+
+        /**
+         * JDK 序列化
+         */
+        JDK,
+
+        /**
+         * 字符串按 UTF-8 编码，超过压缩阈值时使用 Deflate 压缩，用于章节内容等大文本
+         */
+        TEXT,
+
+        /**
+         * JDK 序列化后超过压缩阈值时使用 Deflate 压缩，用于 DTO，压缩可以去掉序列化数据中大量重复的类描述信息
+         */
+        COMPRESSED
+
     }
 
 }
@@ -45,10 +45,16 @@ public class DatabaseConsts {
             throw new IllegalStateException(SystemConfigConsts.CONST_INSTANCE_EXCEPTION_MSG);
         }
 
+        public static final String COLUMN_WORK_DIRECTION = "work_direction";
+
         public static final String COLUMN_CATEGORY_ID = "category_id";
 
         public static final String COLUMN_BOOK_NAME = "book_name";
 
+        public static final String COLUMN_AUTHOR_NAME = "author_name";
+
+        public static final String COLUMN_BOOK_DESC = "book_desc";
+
         public static final String AUTHOR_ID = "author_id";
 
         public static final String COLUMN_VISIT_COUNT = "visit_count";
@@ -72,6 +78,10 @@ public class DatabaseConsts {
 
         public static final String COLUMN_CHAPTER_NUM = "chapter_num";
 
+        public static final String COLUMN_CHAPTER_NAME = "chapter_name";
+
+        public static final String COLUMN_IS_VIP = "is_vip";
+
         public static final String COLUMN_LAST_CHAPTER_UPDATE_TIME = "last_chapter_update_time";
 
     }
@@ -87,6 +97,8 @@ public class DatabaseConsts {
 
         public static final String COLUMN_CHAPTER_ID = "chapter_id";
 
+        public static final String COLUMN_CONTENT = "content";
+
     }
 
     /**
@@ -104,6 +116,36 @@ public class DatabaseConsts {
 
     }
 
+    /**
+     * 用户书架表
+     */
+    public static class UserBookshelfTable {
+
+        private UserBookshelfTable() {
+            throw new IllegalStateException(SystemConfigConsts.CONST_INSTANCE_EXCEPTION_MSG);
+        }
+
+        public static final String COLUMN_USER_ID = "user_id";
+
+        public static final String COLUMN_BOOK_ID = "book_id";
+
+    }
+
+    /**
+     * 用户阅读历史表
+     */
+    public static class UserReadHistoryTable {
+
+        private UserReadHistoryTable() {
+            throw new IllegalStateException(SystemConfigConsts.CONST_INSTANCE_EXCEPTION_MSG);
+        }
+
+        public static final String COLUMN_USER_ID = "user_id";
+
+        public static final String COLUMN_BOOK_ID = "book_id";
+
+    }
+
     /**
      * 通用列枚举类
      */
@@ -134,7 +176,9 @@ public class DatabaseConsts {
         LIMIT_2("limit 2"),
         LIMIT_5("limit 5"),
         LIMIT_30("limit 30"),
-        LIMIT_500("limit 500");
+        LIMIT_500("limit 500"),
+        LIMIT_1000("limit 1000"),
+        LIMIT_10000("limit 10000");
 
         private final String sql;
 
@@ -2,6 +2,9 @@ package io.github.xxyopen.novel.dao.mapper;
 
 import io.github.xxyopen.novel.dao.entity.BookChapter;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import java.util.Collection;
+import java.util.List;
+import org.apache.ibatis.annotations.Param;
 
 /**
  * <p>
@@ -13,4 +16,12 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface BookChapterMapper extends BaseMapper<BookChapter> {
 
+    /**
+     * 批量查询小说的首章（只查询ID和小说ID）
+     *
+     * @param bookIds 小说ID列表
+     * @return 首章列表
+     */
+    List<BookChapter> listFirstChapters(@Param("bookIds") Collection<Long> bookIds);
+
 }
@@ -8,6 +8,7 @@ import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
 import org.apache.ibatis.annotations.Param;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -26,6 +27,13 @@ public interface BookInfoMapper extends BaseMapper<BookInfo> {
      */
     void addVisitCount(@Param("bookId") Long bookId);
 
+    /**
+     * 批量增加小说点击量
+     *
+     * @param visitCounts 小说ID -> 增加的点击量
+     */
+    void addVisitCounts(@Param("visitCounts") Map<Long, Long> visitCounts);
+
     /**
      * 小说搜索
      * @param page mybatis-plus 分页对象
@@ -0,0 +1,194 @@
+package io.github.xxyopen.novel.dto;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * 小说章节目录 DTO
+ * <p>
+ * 按章节号升序保存一本小说所有章节的ID、章节号、章节名和是否收费，每一列使用一个数组，几千个章节也只占用很少的内存；
+ * 对象不可变，新增、修改、删除章节时返回修改后的新目录。
+ * <p>
+ * 章节ID数组同时作为章节导航索引：首章、最新章、上一章、下一章都通过二分查找在内存中定位，不再查询数据库。
+ */
+public final class BookChapterDirectoryDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final long[] ids;
+
+    private final int[] chapterNums;
+
+    private final String[] chapterNames;
+
+    private final byte[] vipFlags;
+
+    public BookChapterDirectoryDto(long[] ids, int[] chapterNums, String[] chapterNames,
+        byte[] vipFlags) {
+        this.ids = ids;
+        this.chapterNums = chapterNums;
+        this.chapterNames = chapterNames;
+        this.vipFlags = vipFlags;
+    }
+
+    /**
+     * 章节数
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    public int getChapterNum(int index) {
+        return chapterNums[index];
+    }
+
+    public String getChapterName(int index) {
+        return chapterNames[index];
+    }
+
+    public Integer getIsVip(int index) {
+        return (int) vipFlags[index];
+    }
+
+    /**
+     * 首章ID，没有章节时返回 null
+     */
+    public Long getFirstId() {
+        return ids.length > 0 ? ids[0] : null;
+    }
+
+    /**
+     * 最新章节ID，没有章节时返回 null
+     */
+    public Long getLastId() {
+        return ids.length > 0 ? ids[ids.length - 1] : null;
+    }
+
+    /**
+     * 上一章ID，没有上一章时返回 null
+     */
+    public Long getPreId(long chapterId, int chapterNum) {
+        int index = indexOf(chapterId, chapterNum);
+        if (index < 0) {
+            // 章节不在目录中（例如刚刚被删除），按章节号定位到下一个位置
+            index = Arrays.binarySearch(chapterNums, chapterNum);
+            index = index >= 0 ? index : -index - 1;
+        }
+        return index > 0 ? ids[index - 1] : null;
+    }
+
+    /**
+     * 下一章ID，没有下一章时返回 null
+     */
+    public Long getNextId(long chapterId, int chapterNum) {
+        int index = indexOf(chapterId, chapterNum);
+        if (index < 0) {
+            // 章节不在目录中（例如刚刚被删除），按章节号定位到上一个位置
+            index = Arrays.binarySearch(chapterNums, chapterNum);
+            index = index >= 0 ? index : -index - 2;
+        }
+        return index + 1 < ids.length ? ids[index + 1] : null;
+    }
+
+    /**
+     * 查找章节在目录中的位置，不存在时返回 -1
+     *
+     * @param chapterId  章节ID
+     * @param chapterNum 章节号，用于二分查找
+     */
+    public int indexOf(long chapterId, int chapterNum) {
+        int index = Arrays.binarySearch(chapterNums, chapterNum);
+        if (index >= 0 && ids[index] == chapterId) {
+            return index;
+        }
+        // 章节号重复等异常数据时退化为顺序查找
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == chapterId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按章节号插入一个章节（一般是追加到末尾），章节已经在目录中时只修改章节名和是否收费
+     */
+    public BookChapterDirectoryDto add(long chapterId, int chapterNum, String chapterName,
+        Integer isVip) {
+        if (indexOf(chapterId, chapterNum) >= 0) {
+            return update(chapterId, chapterNum, chapterName, isVip);
+        }
+        int index = Arrays.binarySearch(chapterNums, chapterNum);
+        int insertAt = index >= 0 ? index + 1 : -index - 1;
+        int size = ids.length;
+        long[] newIds = new long[size + 1];
+        int[] newChapterNums = new int[size + 1];
+        String[] newChapterNames = new String[size + 1];
+        byte[] newVipFlags = new byte[size + 1];
+        System.arraycopy(ids, 0, newIds, 0, insertAt);
+        System.arraycopy(chapterNums, 0, newChapterNums, 0, insertAt);
+        System.arraycopy(chapterNames, 0, newChapterNames, 0, insertAt);
+        System.arraycopy(vipFlags, 0, newVipFlags, 0, insertAt);
+        newIds[insertAt] = chapterId;
+        newChapterNums[insertAt] = chapterNum;
+        newChapterNames[insertAt] = chapterName;
+        newVipFlags[insertAt] = toVipFlag(isVip);
+        System.arraycopy(ids, insertAt, newIds, insertAt + 1, size - insertAt);
+        System.arraycopy(chapterNums, insertAt, newChapterNums, insertAt + 1, size - insertAt);
+        System.arraycopy(chapterNames, insertAt, newChapterNames, insertAt + 1, size - insertAt);
+        System.arraycopy(vipFlags, insertAt, newVipFlags, insertAt + 1, size - insertAt);
+        return new BookChapterDirectoryDto(newIds, newChapterNums, newChapterNames, newVipFlags);
+    }
+
+    /**
+     * 修改章节名和是否收费，章节不存在时返回原目录
+     */
+    public BookChapterDirectoryDto update(long chapterId, int chapterNum, String chapterName,
+        Integer isVip) {
+        int index = indexOf(chapterId, chapterNum);
+        if (index < 0) {
+            return this;
+        }
+        String[] newChapterNames = chapterNames.clone();
+        byte[] newVipFlags = vipFlags.clone();
+        newChapterNames[index] = chapterName;
+        newVipFlags[index] = toVipFlag(isVip);
+        // 章节ID和章节号不变，和原目录共用
+        return new BookChapterDirectoryDto(ids, chapterNums, newChapterNames, newVipFlags);
+    }
+
+    /**
+     * 删除章节，章节不存在时返回原目录
+     */
+    public BookChapterDirectoryDto remove(long chapterId, int chapterNum) {
+        int index = indexOf(chapterId, chapterNum);
+        if (index < 0) {
+            return this;
+        }
+        int size = ids.length;
+        long[] newIds = new long[size - 1];
+        int[] newChapterNums = new int[size - 1];
+        String[] newChapterNames = new String[size - 1];
+        byte[] newVipFlags = new byte[size - 1];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(chapterNums, 0, newChapterNums, 0, index);
+        System.arraycopy(chapterNames, 0, newChapterNames, 0, index);
+        System.arraycopy(vipFlags, 0, newVipFlags, 0, index);
+        System.arraycopy(ids, index + 1, newIds, index, size - index - 1);
+        System.arraycopy(chapterNums, index + 1, newChapterNums, index, size - index - 1);
+        System.arraycopy(chapterNames, index + 1, newChapterNames, index, size - index - 1);
+        System.arraycopy(vipFlags, index + 1, newVipFlags, index, size - index - 1);
+        return new BookChapterDirectoryDto(newIds, newChapterNums, newChapterNames, newVipFlags);
+    }
+
+    private static byte toVipFlag(Integer isVip) {
+        return (byte) (isVip != null && isVip == 1 ? 1 : 0);
+    }
+
+}
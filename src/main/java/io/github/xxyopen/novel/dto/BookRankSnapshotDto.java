@@ -0,0 +1,88 @@
+package io.github.xxyopen.novel.dto;
+
+import io.github.xxyopen.novel.dto.resp.BookRankRespDto;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 小说排行榜快照 DTO
+ * <p>
+ * 一次批量计算出的所有排行榜：每个榜单只保存按名次排列的小说ID，上榜小说的信息统一保存一份，同一本小说出现在多个榜单中不会重复存储。
+ */
+public final class BookRankSnapshotDto implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 榜单 key -> 按名次排列的小说ID
+     */
+    private final Map<String, long[]> ranks;
+
+    /**
+     * 小说ID -> 上榜小说信息
+     */
+    private final Map<Long, BookRankRespDto> books;
+
+    /**
+     * 快照生成时间
+     */
+    private final LocalDateTime createTime;
+
+    public BookRankSnapshotDto(Map<String, long[]> ranks, Map<Long, BookRankRespDto> books,
+        LocalDateTime createTime) {
+        this.ranks = ranks;
+        this.books = books;
+        this.createTime = createTime;
+    }
+
+    /**
+     * 榜单 key
+     *
+     * @param period        统计周期
+     * @param categoryId    类别ID，为 null 时不区分类别
+     * @param workDirection 作品方向，为 null 时不区分作品方向；同时指定类别ID时忽略
+     */
+    public static String rankKey(String period, Long categoryId, Integer workDirection) {
+        if (Objects.nonNull(categoryId)) {
+            return period + "::category::" + categoryId;
+        }
+        if (Objects.nonNull(workDirection)) {
+            return period + "::workDirection::" + workDirection;
+        }
+        return period;
+    }
+
+    /**
+     * 查询榜单，榜单不存在时返回空列表
+     */
+    public List<BookRankRespDto> getRank(String rankKey) {
+        long[] bookIds = ranks.get(rankKey);
+        if (Objects.isNull(bookIds)) {
+            return Collections.emptyList();
+        }
+        List<BookRankRespDto> rank = new ArrayList<>(bookIds.length);
+        for (long bookId : bookIds) {
+            BookRankRespDto book = books.get(bookId);
+            if (Objects.nonNull(book)) {
+                rank.add(book);
+            }
+        }
+        return rank;
+    }
+
+    public int getRankCount() {
+        return ranks.size();
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+}
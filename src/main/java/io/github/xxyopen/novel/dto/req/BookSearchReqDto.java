@@ -7,6 +7,7 @@ import lombok.Data;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.util.Date;
+import java.util.Objects;
 
 /**
  * 小说搜索 请求DTO
@@ -75,4 +76,11 @@ public class BookSearchReqDto extends PageReqDto {
      */
     @Parameter(description = "排序字段")
     private String sort;
+
+    /**
+     * 去掉关键字首尾的空白，和搜索结果缓存的 key 保持一致
+     */
+    public void setKeyword(String keyword) {
+        this.keyword = Objects.nonNull(keyword) ? keyword.trim() : null;
+    }
 }
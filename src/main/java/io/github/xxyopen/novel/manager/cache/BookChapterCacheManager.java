@@ -1,13 +1,32 @@
 package io.github.xxyopen.novel.manager.cache;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.cache.BatchCache;
+import io.github.xxyopen.novel.core.cache.CacheInvalidationBus;
+import io.github.xxyopen.novel.core.cache.TwoLevelCache;
+import io.github.xxyopen.novel.core.common.constant.ErrorCodeEnum;
+import io.github.xxyopen.novel.core.common.exception.BusinessException;
 import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
 import io.github.xxyopen.novel.dao.entity.BookChapter;
 import io.github.xxyopen.novel.dao.mapper.BookChapterMapper;
+import io.github.xxyopen.novel.dto.BookChapterDirectoryDto;
 import io.github.xxyopen.novel.dto.resp.BookChapterRespDto;
-import lombok.RequiredArgsConstructor;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * 小说章节 缓存管理类
@@ -16,20 +35,161 @@ import org.springframework.stereotype.Component;
  * @date 2022/5/12
  */
 @Component
-@RequiredArgsConstructor
 public class BookChapterCacheManager {
 
     private final BookChapterMapper bookChapterMapper;
 
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final BookIdFilterManager bookIdFilterManager;
+
+    private final Cache bookChapterCache;
+
+    private final TwoLevelCache chapterDirectoryCache;
+
+    public BookChapterCacheManager(BookChapterMapper bookChapterMapper,
+        CacheInvalidationBus cacheInvalidationBus, BookIdFilterManager bookIdFilterManager,
+        @Qualifier(CacheConsts.CAFFEINE_CACHE_MANAGER) CacheManager caffeineCacheManager,
+        @Qualifier(CacheConsts.TWO_LEVEL_CACHE_MANAGER) CacheManager twoLevelCacheManager) {
+        this.bookChapterMapper = bookChapterMapper;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.bookIdFilterManager = bookIdFilterManager;
+        this.bookChapterCache = caffeineCacheManager.getCache(
+            CacheConsts.BOOK_CHAPTER_CACHE_NAME);
+        this.chapterDirectoryCache = (TwoLevelCache) twoLevelCacheManager.getCache(
+            CacheConsts.BOOK_CHAPTER_DIRECTORY_CACHE_NAME);
+    }
+
     /**
      * 查询小说章节信息，并放入缓存中
      */
     @Cacheable(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
-        value = CacheConsts.BOOK_CHAPTER_CACHE_NAME)
+        value = CacheConsts.BOOK_CHAPTER_CACHE_NAME, sync = true)
     public BookChapterRespDto getChapter(Long chapterId) {
+        // 拦截不存在的章节ID
+        bookIdFilterManager.checkChapterId(chapterId);
         BookChapter bookChapter = bookChapterMapper.selectById(chapterId);
+        if (Objects.isNull(bookChapter)) {
+            bookIdFilterManager.markChapterMissing(chapterId);
+            throw new BusinessException(ErrorCodeEnum.USER_REQUEST_PARAM_ERROR);
+        }
+        return buildBookChapterRespDto(bookChapter);
+    }
+
+    /**
+     * 批量查询小说章节信息，缓存未命中的章节通过一次 IN 查询从数据库加载
+     *
+     * @param chapterIds 章节ID列表
+     * @return 章节ID -> 章节信息，不包含不存在的章节
+     */
+    public Map<Long, BookChapterRespDto> getChapters(Collection<Long> chapterIds) {
+        return BatchCache.getAll(bookChapterCache, chapterIds, this::listChapters);
+    }
+
+    @CacheEvict(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
+        value = CacheConsts.BOOK_CHAPTER_CACHE_NAME)
+    public void evictBookChapterCache(Long chapterId) {
+        // 调用此方法自动清除小说章节信息的缓存，并通知其它节点清除各自的本地缓存
+        cacheInvalidationBus.publishEvict(CacheConsts.BOOK_CHAPTER_CACHE_NAME, chapterId);
+    }
+
+    /**
+     * 查询小说章节目录，并放入缓存中
+     */
+    @Cacheable(cacheManager = CacheConsts.TWO_LEVEL_CACHE_MANAGER,
+        value = CacheConsts.BOOK_CHAPTER_DIRECTORY_CACHE_NAME, sync = true)
+    public BookChapterDirectoryDto getChapterDirectory(Long bookId) {
+        // 拦截不存在的小说ID
+        bookIdFilterManager.checkBookId(bookId);
+        QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName(),
+                DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM,
+                DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NAME,
+                DatabaseConsts.BookChapterTable.COLUMN_IS_VIP)
+            .eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, bookId)
+            .orderByAsc(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM);
+        List<BookChapter> chapters = bookChapterMapper.selectList(queryWrapper);
+        int size = chapters.size();
+        long[] ids = new long[size];
+        int[] chapterNums = new int[size];
+        String[] chapterNames = new String[size];
+        byte[] vipFlags = new byte[size];
+        for (int i = 0; i < size; i++) {
+            BookChapter chapter = chapters.get(i);
+            ids[i] = chapter.getId();
+            chapterNums[i] = chapter.getChapterNum();
+            chapterNames[i] = chapter.getChapterName();
+            vipFlags[i] = (byte) (Objects.equals(chapter.getIsVip(), 1) ? 1 : 0);
+        }
+        return new BookChapterDirectoryDto(ids, chapterNums, chapterNames, vipFlags);
+    }
+
+    /**
+     * 新增章节后把章节追加到已缓存的章节目录中
+     */
+    public void addToChapterDirectory(BookChapter chapter) {
+        patchChapterDirectory(chapter.getBookId(),
+            directory -> directory.add(chapter.getId(), chapter.getChapterNum(),
+                chapter.getChapterName(), chapter.getIsVip()));
+    }
+
+    /**
+     * 修改章节后更新已缓存的章节目录中的章节名和是否收费
+     */
+    public void updateChapterDirectory(Long bookId, Long chapterId, Integer chapterNum,
+        String chapterName, Integer isVip) {
+        patchChapterDirectory(bookId,
+            directory -> directory.update(chapterId, chapterNum, chapterName, isVip));
+    }
+
+    /**
+     * 删除章节后从已缓存的章节目录中移除章节
+     */
+    public void removeFromChapterDirectory(Long bookId, Long chapterId, Integer chapterNum) {
+        patchChapterDirectory(bookId, directory -> directory.remove(chapterId, chapterNum));
+    }
+
+    /**
+     * 在已缓存的章节目录上直接修改，不清除缓存重新加载
+     * <p>
+     * 事务中调用时在事务提交后修改，事务回滚时不做处理。修改通过 Redis 乐观锁写回，多个节点同时修改同一本小说的目录时只有一个成功；
+     * 目录还没有缓存或修改冲突时清除章节目录缓存，下次查询时从数据库重新加载。
+     */
+    private void patchChapterDirectory(Long bookId,
+        UnaryOperator<BookChapterDirectoryDto> patch) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            chapterDirectoryCache.update(bookId, patch);
+            return;
+        }
+        // afterCompletion 执行时事务同步已经结束，远程缓存的写入和失效通知都立即执行
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        chapterDirectoryCache.update(bookId, patch);
+                    }
+                }
+            });
+    }
+
+    private Map<Long, BookChapterRespDto> listChapters(Set<Long> ids) {
+        // 拦截不存在的章节ID
+        List<Long> chapterIds = ids.stream().filter(bookIdFilterManager::mightExistChapterId)
+            .toList();
+        if (chapterIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, BookChapterRespDto> result = bookChapterMapper.selectBatchIds(chapterIds)
+            .stream().collect(Collectors.toMap(BookChapter::getId, this::buildBookChapterRespDto));
+        chapterIds.stream().filter(id -> !result.containsKey(id))
+            .forEach(bookIdFilterManager::markChapterMissing);
+        return result;
+    }
+
+    private BookChapterRespDto buildBookChapterRespDto(BookChapter bookChapter) {
         return BookChapterRespDto.builder()
-            .id(chapterId)
+            .id(bookChapter.getId())
             .bookId(bookChapter.getBookId())
             .chapterNum(bookChapter.getChapterNum())
             .chapterName(bookChapter.getChapterName())
@@ -39,10 +199,4 @@ public class BookChapterCacheManager {
             .build();
     }
 
-    @CacheEvict(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
-        value = CacheConsts.BOOK_CHAPTER_CACHE_NAME)
-    public void evictBookChapterCache(Long chapterId) {
-        // 调用此方法自动清除小说章节信息的缓存
-    }
-
 }
@@ -0,0 +1,534 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.UserBookshelf;
+import io.github.xxyopen.novel.dao.entity.UserReadHistory;
+import io.github.xxyopen.novel.dao.mapper.UserBookshelfMapper;
+import io.github.xxyopen.novel.dao.mapper.UserReadHistoryMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说同读推荐 管理类
+ * <p>
+ * 定时从用户书架和阅读历史中批量计算小说之间的同读关系：同时出现在同一个用户书架或阅读历史中的两本小说计一次同读，
+ * 按 同读次数 / sqrt(小说A的读者数 * 小说B的读者数) 计算相似度，每本小说只保存相似度最高的若干本小说的ID数组。
+ * 查询推荐时只读内存中的数组，不访问数据库和缓存。
+ * <p>
+ * 整个集群中只有拿到计算锁的一个节点执行计算，计算结果写入 Redis，其它节点定时检查并加载新的模型；
+ * 同读次数使用基本类型的开放寻址表统计，小说组合数量达到上限后不再统计新的组合。
+ * <p>
+ * 计算在独立的后台线程中执行，不占用定时任务线程；计算完成后整体替换旧的模型，计算失败时继续使用旧的模型。
+ */
+@Component
+@Slf4j
+public class BookCoReadManager {
+
+    /**
+     * 每个用户最多参与计算的小说数量（最近加入的），避免少数用户产生大量的小说组合
+     */
+    private static final int MAX_BOOKS_PER_USER = 50;
+
+    /**
+     * 每次扫描的记录数
+     */
+    private static final int SCAN_BATCH_SIZE = 10000;
+
+    /**
+     * 每次写入 Redis 的小说数量
+     */
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    /**
+     * 模型计算时间字段
+     */
+    private static final String BUILD_TIME_FIELD = "_time";
+
+    /**
+     * 计算锁 KEY
+     */
+    private static final String REBUILD_LOCK_KEY = CacheConsts.BOOK_CO_READ_KEY + "::rebuild";
+
+    private final UserBookshelfMapper userBookshelfMapper;
+
+    private final UserReadHistoryMapper userReadHistoryMapper;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final boolean enabled;
+
+    /**
+     * 每本小说保存的相似小说数量
+     */
+    private final int neighborCount;
+
+    /**
+     * 重新计算的间隔（毫秒）
+     */
+    private final long rebuildInterval;
+
+    /**
+     * 检查新模型的间隔（毫秒）
+     */
+    private final long syncInterval;
+
+    /**
+     * 最多统计的小说组合数量
+     */
+    private final int maxPairs;
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * 小说ID -> 按相似度降序排列的小说ID
+     */
+    private volatile Map<Long, long[]> neighbors = Collections.emptyMap();
+
+    /**
+     * 当前模型的计算时间
+     */
+    private volatile String buildTime;
+
+    public BookCoReadManager(UserBookshelfMapper userBookshelfMapper,
+        UserReadHistoryMapper userReadHistoryMapper, StringRedisTemplate stringRedisTemplate,
+        @Value("${novel.rec.enabled:true}") boolean enabled,
+        @Value("${novel.rec.neighbor-count:20}") int neighborCount,
+        @Value("${novel.rec.rebuild-interval:86400000}") long rebuildInterval,
+        @Value("${novel.rec.sync-interval:600000}") long syncInterval,
+        @Value("${novel.rec.max-pairs:2000000}") int maxPairs) {
+        this.userBookshelfMapper = userBookshelfMapper;
+        this.userReadHistoryMapper = userReadHistoryMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.enabled = enabled;
+        this.neighborCount = neighborCount;
+        this.rebuildInterval = rebuildInterval;
+        this.syncInterval = syncInterval;
+        this.maxPairs = maxPairs;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("co-read-");
+        threadFactory.setDaemon(true);
+        threadFactory.setThreadPriority(Thread.MIN_PRIORITY);
+        this.executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            executor.scheduleWithFixedDelay(this::refresh, 0, syncInterval,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 查询和指定小说相似度最高的小说ID
+     *
+     * @return 按相似度降序排列的小说ID，没有同读数据时返回空数组
+     */
+    public long[] getNeighbors(Long bookId) {
+        long[] bookIds = neighbors.get(bookId);
+        return bookIds != null ? bookIds : new long[0];
+    }
+
+    /**
+     * 加载其它节点计算好的新模型；距离上次计算超过重新计算的间隔时，拿到计算锁的节点重新计算
+     */
+    public void refresh() {
+        try {
+            load();
+            Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(REBUILD_LOCK_KEY,
+                "1", Duration.ofMillis(rebuildInterval));
+            if (Boolean.TRUE.equals(acquired) && !rebuild()) {
+                stringRedisTemplate.delete(REBUILD_LOCK_KEY);
+            }
+        } catch (Exception e) {
+            log.error("小说同读模型同步失败：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 重新计算同读模型并写入 Redis
+     *
+     * @return 是否计算成功
+     */
+    public boolean rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            // 1.扫描书架和阅读历史，得到每个用户读过的小说
+            Map<Long, UserBooks> userBooks = new HashMap<>();
+            scan(userBookshelfMapper, DatabaseConsts.UserBookshelfTable.COLUMN_USER_ID,
+                DatabaseConsts.UserBookshelfTable.COLUMN_BOOK_ID, UserBookshelf::getId,
+                UserBookshelf::getUserId, UserBookshelf::getBookId, userBooks);
+            scan(userReadHistoryMapper, DatabaseConsts.UserReadHistoryTable.COLUMN_USER_ID,
+                DatabaseConsts.UserReadHistoryTable.COLUMN_BOOK_ID, UserReadHistory::getId,
+                UserReadHistory::getUserId, UserReadHistory::getBookId, userBooks);
+
+            // 2.小说ID映射为连续的下标，统计每本小说的读者数和两两之间的同读次数
+            int total = userBooks.values().stream().mapToInt(books -> books.size).sum();
+            LongIntMap bookIndexes = new LongIntMap(total);
+            long[] bookIds = new long[total];
+            int[] readerCounts = new int[total];
+            LongIntMap coReadCounts = new LongIntMap(maxPairs);
+            for (UserBooks books : userBooks.values()) {
+                int[] indexes = new int[books.size];
+                for (int i = 0; i < books.size; i++) {
+                    int index = bookIndexes.get(books.ids[i]);
+                    if (index < 0) {
+                        index = bookIndexes.size;
+                        bookIndexes.put(books.ids[i], index);
+                        bookIds[index] = books.ids[i];
+                    }
+                    readerCounts[index]++;
+                    indexes[i] = index;
+                }
+                for (int i = 0; i < indexes.length; i++) {
+                    for (int j = i + 1; j < indexes.length; j++) {
+                        coReadCounts.increment(pairKey(indexes[i], indexes[j]));
+                    }
+                }
+            }
+            if (coReadCounts.isFull()) {
+                log.warn("小说同读组合数量达到上限 {}，超出部分不参与计算", maxPairs);
+            }
+
+            // 3.每本小说按相似度保留前若干本
+            TopNeighbors top = new TopNeighbors(bookIndexes.size, neighborCount);
+            coReadCounts.forEach((pair, count) -> {
+                int a = (int) (pair >>> 32);
+                int b = (int) pair;
+                double similarity = similarity(count, readerCounts[a], readerCounts[b]);
+                top.offer(a, bookIds[b], similarity);
+                top.offer(b, bookIds[a], similarity);
+            });
+            Map<Long, long[]> model = new HashMap<>(bookIndexes.size * 2);
+            for (int i = 0; i < bookIndexes.size; i++) {
+                long[] neighborIds = top.sorted(i);
+                if (neighborIds.length > 0) {
+                    model.put(bookIds[i], neighborIds);
+                }
+            }
+            String time = String.valueOf(System.currentTimeMillis());
+            save(model, time);
+            neighbors = model;
+            buildTime = time;
+            log.info("小说同读模型计算完成，用户数：{}，小说数：{}，组合数：{}，耗时：{}ms",
+                userBooks.size(), model.size(), coReadCounts.size,
+                System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            log.error("小说同读模型计算失败：{}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 模型先写入临时 key 再替换，避免其它节点读取到写了一半的模型
+     */
+    private void save(Map<Long, long[]> model, String time) {
+        String tmpKey = CacheConsts.BOOK_CO_READ_KEY + "::tmp";
+        stringRedisTemplate.delete(tmpKey);
+        Map<String, String> batch = new HashMap<>(WRITE_BATCH_SIZE * 2);
+        for (Map.Entry<Long, long[]> entry : model.entrySet()) {
+            StringJoiner joiner = new StringJoiner(",");
+            for (long id : entry.getValue()) {
+                joiner.add(String.valueOf(id));
+            }
+            batch.put(String.valueOf(entry.getKey()), joiner.toString());
+            if (batch.size() >= WRITE_BATCH_SIZE) {
+                stringRedisTemplate.opsForHash().putAll(tmpKey, batch);
+                batch.clear();
+            }
+        }
+        batch.put(BUILD_TIME_FIELD, time);
+        stringRedisTemplate.opsForHash().putAll(tmpKey, batch);
+        stringRedisTemplate.rename(tmpKey, CacheConsts.BOOK_CO_READ_KEY);
+    }
+
+    /**
+     * 模型有更新时从 Redis 加载
+     */
+    private void load() {
+        Object time = stringRedisTemplate.opsForHash()
+            .get(CacheConsts.BOOK_CO_READ_KEY, BUILD_TIME_FIELD);
+        if (Objects.isNull(time) || time.equals(buildTime)) {
+            return;
+        }
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash()
+            .entries(CacheConsts.BOOK_CO_READ_KEY);
+        entries.remove(BUILD_TIME_FIELD);
+        Map<Long, long[]> model = new HashMap<>(entries.size() * 2);
+        entries.forEach((bookId, neighborIds) -> model.put(Long.parseLong(bookId.toString()),
+            Arrays.stream(neighborIds.toString().split(",")).mapToLong(Long::parseLong)
+                .toArray()));
+        neighbors = model;
+        buildTime = time.toString();
+        log.info("小说同读模型加载完成，小说数：{}", model.size());
+    }
+
+    /**
+     * 按主键顺序分批扫描用户和小说的对应关系
+     */
+    private <T> void scan(BaseMapper<T> mapper, String userIdColumn, String bookIdColumn,
+        Function<T, Long> idGetter, Function<T, Long> userIdGetter,
+        Function<T, Long> bookIdGetter, Map<Long, UserBooks> userBooks) {
+        long lastId = 0;
+        while (true) {
+            QueryWrapper<T> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName(), userIdColumn,
+                    bookIdColumn)
+                .gt(DatabaseConsts.CommonColumnEnum.ID.getName(), lastId)
+                .orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+                .last(DatabaseConsts.SqlEnum.LIMIT_10000.getSql());
+            List<T> records = mapper.selectList(queryWrapper);
+            for (T record : records) {
+                userBooks.computeIfAbsent(userIdGetter.apply(record), k -> new UserBooks())
+                    .add(bookIdGetter.apply(record));
+            }
+            if (records.size() < SCAN_BATCH_SIZE) {
+                return;
+            }
+            lastId = idGetter.apply(records.get(records.size() - 1));
+        }
+    }
+
+    /**
+     * 两本小说的组合，小的下标在高 32 位
+     */
+    private static long pairKey(int a, int b) {
+        return a < b ? (long) a << 32 | b : (long) b << 32 | a;
+    }
+
+    private static double similarity(int coReadCount, int readerCount, int otherReaderCount) {
+        return coReadCount / Math.sqrt((double) readerCount * otherReaderCount);
+    }
+
+    /**
+     * 用户读过的小说，按加入顺序保存，超过上限时丢弃最早的小说
+     */
+    private static final class UserBooks {
+
+        private long[] ids = new long[4];
+
+        private int size;
+
+        void add(long bookId) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == bookId) {
+                    return;
+                }
+            }
+            if (size == MAX_BOOKS_PER_USER) {
+                // 主键越大越新，丢弃最早的小说
+                System.arraycopy(ids, 1, ids, 0, size - 1);
+                size--;
+            } else if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.min(size * 2, MAX_BOOKS_PER_USER));
+            }
+            ids[size++] = bookId;
+        }
+
+    }
+
+    /**
+     * long -> int 开放寻址表（线性探测），容量固定，0 不能作为 key
+     */
+    private static final class LongIntMap {
+
+        private final long[] keys;
+
+        private final int[] values;
+
+        private final int mask;
+
+        private final int maxSize;
+
+        private int size;
+
+        LongIntMap(int maxSize) {
+            this.maxSize = maxSize;
+            // 装载因子不超过 0.5
+            int capacity = Integer.highestOneBit(Math.max(maxSize, 1) * 2 - 1) << 1;
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * @return key 对应的值，不存在时返回 -1
+         */
+        int get(long key) {
+            int slot = slot(key);
+            return keys[slot] == key ? values[slot] : -1;
+        }
+
+        void put(long key, int value) {
+            int slot = slot(key);
+            if (keys[slot] != key) {
+                if (isFull()) {
+                    return;
+                }
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] = value;
+        }
+
+        /**
+         * 计数加一，表满时不再加入新的 key
+         */
+        void increment(long key) {
+            int slot = slot(key);
+            if (keys[slot] == key) {
+                values[slot]++;
+            } else if (!isFull()) {
+                keys[slot] = key;
+                values[slot] = 1;
+                size++;
+            }
+        }
+
+        boolean isFull() {
+            return size >= maxSize;
+        }
+
+        void forEach(LongIntConsumer consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    consumer.accept(keys[i], values[i]);
+                }
+            }
+        }
+
+        /**
+         * key 所在的槽位，不存在时返回可以插入的空槽位
+         */
+        private int slot(long key) {
+            int slot = (int) (key * 0x9E3779B97F4A7C15L >>> 32) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface LongIntConsumer {
+
+        void accept(long key, int value);
+
+    }
+
+    /**
+     * 每本小说相似度最高的若干本小说（最小堆）
+     */
+    private static final class TopNeighbors {
+
+        private final long[][] ids;
+
+        private final double[][] scores;
+
+        private final int[] sizes;
+
+        private final int limit;
+
+        TopNeighbors(int bookCount, int limit) {
+            this.ids = new long[bookCount][];
+            this.scores = new double[bookCount][];
+            this.sizes = new int[bookCount];
+            this.limit = limit;
+        }
+
+        void offer(int book, long neighborId, double score) {
+            if (limit <= 0) {
+                return;
+            }
+            if (ids[book] == null) {
+                ids[book] = new long[limit];
+                scores[book] = new double[limit];
+            }
+            long[] heapIds = ids[book];
+            double[] heapScores = scores[book];
+            int size = sizes[book];
+            if (size < limit) {
+                // 上浮
+                int i = size;
+                while (i > 0 && heapScores[(i - 1) / 2] > score) {
+                    heapIds[i] = heapIds[(i - 1) / 2];
+                    heapScores[i] = heapScores[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                heapIds[i] = neighborId;
+                heapScores[i] = score;
+                sizes[book] = size + 1;
+            } else if (score > heapScores[0]) {
+                siftDown(heapIds, heapScores, size, neighborId, score);
+            }
+        }
+
+        /**
+         * 按相似度降序排列的小说ID
+         */
+        long[] sorted(int book) {
+            int size = sizes[book];
+            long[] heapIds = ids[book];
+            double[] heapScores = scores[book];
+            long[] result = new long[size];
+            // 依次取出堆顶（最小值）从后往前放
+            for (int n = size; n > 0; n--) {
+                result[n - 1] = heapIds[0];
+                siftDown(heapIds, heapScores, n - 1, heapIds[n - 1], heapScores[n - 1]);
+            }
+            return result;
+        }
+
+        /**
+         * 用新元素替换堆顶后下沉
+         */
+        private static void siftDown(long[] heapIds, double[] heapScores, int size, long id,
+            double score) {
+            int i = 0;
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && heapScores[child + 1] < heapScores[child]) {
+                    child++;
+                }
+                if (heapScores[child] >= score) {
+                    break;
+                }
+                heapIds[i] = heapIds[child];
+                heapScores[i] = heapScores[child];
+                i = child;
+            }
+            if (size > 0) {
+                heapIds[i] = id;
+                heapScores[i] = score;
+            }
+        }
+
+    }
+
+}
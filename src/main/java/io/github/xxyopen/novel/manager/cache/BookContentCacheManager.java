@@ -1,13 +1,26 @@
 package io.github.xxyopen.novel.manager.cache;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.cache.BatchCache;
+import io.github.xxyopen.novel.core.common.constant.ErrorCodeEnum;
+import io.github.xxyopen.novel.core.common.exception.BusinessException;
 import io.github.xxyopen.novel.core.constant.CacheConsts;
 import io.github.xxyopen.novel.core.constant.DatabaseConsts;
 import io.github.xxyopen.novel.dao.entity.BookContent;
 import io.github.xxyopen.novel.dao.mapper.BookContentMapper;
-import lombok.RequiredArgsConstructor;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Component;
 
 /**
@@ -17,28 +30,114 @@ import org.springframework.stereotype.Component;
  * @date 2022/5/12
  */
 @Component
-@RequiredArgsConstructor
 public class BookContentCacheManager {
 
+    /**
+     * 小说内容摘要长度
+     */
+    private static final int CONTENT_SUMMARY_LENGTH = 30;
+
     private final BookContentMapper bookContentMapper;
 
+    private final BookIdFilterManager bookIdFilterManager;
+
+    private final Cache bookContentCache;
+
+    public BookContentCacheManager(BookContentMapper bookContentMapper,
+        BookIdFilterManager bookIdFilterManager,
+        @Qualifier(CacheConsts.TWO_LEVEL_CACHE_MANAGER) CacheManager twoLevelCacheManager) {
+        this.bookContentMapper = bookContentMapper;
+        this.bookIdFilterManager = bookIdFilterManager;
+        this.bookContentCache = twoLevelCacheManager.getCache(
+            CacheConsts.BOOK_CONTENT_CACHE_NAME);
+    }
+
     /**
-     * 查询小说内容，并放入缓存中
+     * 查询小说内容，并放入缓存中（同一章节的并发请求只有一个会查询数据库，热门章节缓存失效时避免击穿）
      */
-    @Cacheable(cacheManager = CacheConsts.REDIS_CACHE_MANAGER,
-        value = CacheConsts.BOOK_CONTENT_CACHE_NAME)
+    @Cacheable(cacheManager = CacheConsts.TWO_LEVEL_CACHE_MANAGER,
+        value = CacheConsts.BOOK_CONTENT_CACHE_NAME, sync = true)
     public String getBookContent(Long chapterId) {
+        // 拦截不存在的章节ID
+        bookIdFilterManager.checkChapterId(chapterId);
         QueryWrapper<BookContent> contentQueryWrapper = new QueryWrapper<>();
         contentQueryWrapper.eq(DatabaseConsts.BookContentTable.COLUMN_CHAPTER_ID, chapterId)
             .last(DatabaseConsts.SqlEnum.LIMIT_1.getSql());
         BookContent bookContent = bookContentMapper.selectOne(contentQueryWrapper);
+        if (Objects.isNull(bookContent)) {
+            bookIdFilterManager.markChapterMissing(chapterId);
+            throw new BusinessException(ErrorCodeEnum.USER_REQUEST_PARAM_ERROR);
+        }
+        return bookContent.getContent();
+    }
+
+    /**
+     * 批量查询小说内容：本地缓存、远程缓存依次批量查询，都未命中的章节通过一次 IN 查询从数据库加载
+     *
+     * @param chapterIds 章节ID列表
+     * @return 章节ID -> 小说内容，不包含不存在的章节
+     */
+    public Map<Long, String> getBookContents(Collection<Long> chapterIds) {
+        return BatchCache.getAll(bookContentCache, chapterIds, this::listBookContents);
+    }
+
+    /**
+     * 查询小说内容摘要（内容的前 30 个字），并放入缓存中；只从数据库中截取摘要，不读取完整的章节内容
+     */
+    @Cacheable(cacheManager = CacheConsts.TWO_LEVEL_CACHE_MANAGER,
+        value = CacheConsts.BOOK_CONTENT_SUMMARY_CACHE_NAME, sync = true)
+    public String getBookContentSummary(Long chapterId) {
+        // 拦截不存在的章节ID
+        bookIdFilterManager.checkChapterId(chapterId);
+        QueryWrapper<BookContent> contentQueryWrapper = new QueryWrapper<>();
+        contentQueryWrapper.select(String.format("substring(%s, 1, %d) %s",
+                DatabaseConsts.BookContentTable.COLUMN_CONTENT, CONTENT_SUMMARY_LENGTH,
+                DatabaseConsts.BookContentTable.COLUMN_CONTENT))
+            .eq(DatabaseConsts.BookContentTable.COLUMN_CHAPTER_ID, chapterId)
+            .last(DatabaseConsts.SqlEnum.LIMIT_1.getSql());
+        BookContent bookContent = bookContentMapper.selectOne(contentQueryWrapper);
+        if (Objects.isNull(bookContent)) {
+            bookIdFilterManager.markChapterMissing(chapterId);
+            throw new BusinessException(ErrorCodeEnum.USER_REQUEST_PARAM_ERROR);
+        }
         return bookContent.getContent();
     }
 
-    @CacheEvict(cacheManager = CacheConsts.REDIS_CACHE_MANAGER,
-        value = CacheConsts.BOOK_CONTENT_CACHE_NAME)
+    /**
+     * 保存章节内容时直接缓存内容摘要
+     */
+    @CachePut(cacheManager = CacheConsts.TWO_LEVEL_CACHE_MANAGER,
+        value = CacheConsts.BOOK_CONTENT_SUMMARY_CACHE_NAME, key = "#chapterId")
+    public String cachePutBookContentSummary(Long chapterId, String content) {
+        return content.length() > CONTENT_SUMMARY_LENGTH
+            ? content.substring(0, CONTENT_SUMMARY_LENGTH) : content;
+    }
+
+    @Caching(evict = {
+        @CacheEvict(cacheManager = CacheConsts.TWO_LEVEL_CACHE_MANAGER,
+            value = CacheConsts.BOOK_CONTENT_CACHE_NAME),
+        @CacheEvict(cacheManager = CacheConsts.TWO_LEVEL_CACHE_MANAGER,
+            value = CacheConsts.BOOK_CONTENT_SUMMARY_CACHE_NAME)
+    })
     public void evictBookContentCache(Long chapterId) {
-        // 调用此方法自动清除小说内容信息的缓存
+        // 调用此方法自动清除小说内容信息和内容摘要的缓存
+    }
+
+    private Map<Long, String> listBookContents(Set<Long> ids) {
+        // 拦截不存在的章节ID
+        List<Long> chapterIds = ids.stream().filter(bookIdFilterManager::mightExistChapterId)
+            .toList();
+        if (chapterIds.isEmpty()) {
+            return Map.of();
+        }
+        QueryWrapper<BookContent> contentQueryWrapper = new QueryWrapper<>();
+        contentQueryWrapper.in(DatabaseConsts.BookContentTable.COLUMN_CHAPTER_ID, chapterIds);
+        Map<Long, String> result = bookContentMapper.selectList(contentQueryWrapper).stream()
+            .collect(Collectors.toMap(BookContent::getChapterId, BookContent::getContent,
+                (a, b) -> a));
+        chapterIds.stream().filter(id -> !result.containsKey(id))
+            .forEach(bookIdFilterManager::markChapterMissing);
+        return result;
     }
 
 
@@ -0,0 +1,171 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.cache.IdExistenceFilter;
+import io.github.xxyopen.novel.core.common.constant.ErrorCodeEnum;
+import io.github.xxyopen.novel.core.common.exception.BusinessException;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookChapter;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookChapterMapper;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 小说ID和章节ID过滤 管理类，在查询缓存和数据库之前拦截不存在的ID
+ */
+@Component
+@Slf4j
+public class BookIdFilterManager {
+
+    /**
+     * 布隆过滤器误判率
+     */
+    private static final double FPP = 0.01;
+
+    /**
+     * 不存在ID的最大缓存数量
+     */
+    private static final long MISSING_MAX_SIZE = 100000;
+
+    private final BookInfoMapper bookInfoMapper;
+
+    private final BookChapterMapper bookChapterMapper;
+
+    private final IdExistenceFilter bookIdFilter;
+
+    private final IdExistenceFilter chapterIdFilter;
+
+    public BookIdFilterManager(BookInfoMapper bookInfoMapper, BookChapterMapper bookChapterMapper,
+        @Value("${novel.cache.id-filter.book-expected-insertions:1000000}") long bookExpectedInsertions,
+        @Value("${novel.cache.id-filter.chapter-expected-insertions:10000000}") long chapterExpectedInsertions,
+        @Value("${novel.cache.id-filter.sync-interval:5000}") long syncInterval,
+        @Value("${novel.cache.id-filter.missing-ttl:60}") long missingTtl) {
+        this.bookInfoMapper = bookInfoMapper;
+        this.bookChapterMapper = bookChapterMapper;
+        this.bookIdFilter = new IdExistenceFilter("小说", bookExpectedInsertions, FPP,
+            this::listBookIdsAfter, syncInterval, missingTtl, MISSING_MAX_SIZE);
+        this.chapterIdFilter = new IdExistenceFilter("小说章节", chapterExpectedInsertions, FPP,
+            this::listChapterIdsAfter, syncInterval, missingTtl, MISSING_MAX_SIZE);
+    }
+
+    /**
+     * 应用启动后异步加载，加载完成之前所有ID都放行
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        CompletableFuture.runAsync(() -> {
+            bookIdFilter.load();
+            chapterIdFilter.load();
+        }).exceptionally(e -> {
+            log.error("小说ID过滤器加载失败", e);
+            return null;
+        });
+    }
+
+    /**
+     * 校验小说ID，不存在时直接抛出异常
+     */
+    public void checkBookId(Long bookId) {
+        if (!bookIdFilter.mightExist(bookId)) {
+            throw new BusinessException(ErrorCodeEnum.USER_REQUEST_PARAM_ERROR);
+        }
+    }
+
+    /**
+     * 校验章节ID，不存在时直接抛出异常
+     */
+    public void checkChapterId(Long chapterId) {
+        if (!chapterIdFilter.mightExist(chapterId)) {
+            throw new BusinessException(ErrorCodeEnum.USER_REQUEST_PARAM_ERROR);
+        }
+    }
+
+    /**
+     * 小说ID是否可能存在，用于批量查询时过滤不存在的ID
+     */
+    public boolean mightExistBookId(Long bookId) {
+        return bookIdFilter.mightExist(bookId);
+    }
+
+    /**
+     * 小说ID是否已经加载到过滤器中，用于点击量、访客、热度等不查询数据库的统计，其它节点新增的小说在下次同步后才返回 true
+     */
+    public boolean isKnownBookId(Long bookId) {
+        return bookIdFilter.isLoaded(bookId);
+    }
+
+    /**
+     * 章节ID是否可能存在，用于批量查询时过滤不存在的ID
+     */
+    public boolean mightExistChapterId(Long chapterId) {
+        return chapterIdFilter.mightExist(chapterId);
+    }
+
+    /**
+     * 数据库中查询不到的小说ID，短期内直接拦截
+     */
+    public void markBookMissing(Long bookId) {
+        bookIdFilter.markMissing(bookId);
+    }
+
+    /**
+     * 数据库中查询不到的章节ID，短期内直接拦截
+     */
+    public void markChapterMissing(Long chapterId) {
+        chapterIdFilter.markMissing(chapterId);
+    }
+
+    /**
+     * 新增章节
+     */
+    public void addChapterId(Long chapterId) {
+        chapterIdFilter.add(chapterId);
+    }
+
+    /**
+     * 删除章节，事务提交后生效，避免事务回滚后章节仍然被拦截
+     */
+    public void removeChapterId(Long chapterId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        chapterIdFilter.markMissing(chapterId);
+                    }
+                });
+            return;
+        }
+        chapterIdFilter.markMissing(chapterId);
+    }
+
+    private List<Long> listBookIdsAfter(long id) {
+        QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName())
+            .gt(DatabaseConsts.CommonColumnEnum.ID.getName(), id)
+            .orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+            .last(DatabaseConsts.SqlEnum.LIMIT_10000.getSql());
+        return bookInfoMapper.selectObjs(queryWrapper).stream()
+            .map(o -> ((Number) o).longValue()).toList();
+    }
+
+    private List<Long> listChapterIdsAfter(long id) {
+        QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName())
+            .gt(DatabaseConsts.CommonColumnEnum.ID.getName(), id)
+            .orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+            .last(DatabaseConsts.SqlEnum.LIMIT_10000.getSql());
+        return bookChapterMapper.selectObjs(queryWrapper).stream()
+            .map(o -> ((Number) o).longValue()).toList();
+    }
+
+}
@@ -1,6 +1,9 @@
 package io.github.xxyopen.novel.manager.cache;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.cache.BatchCache;
+import io.github.xxyopen.novel.core.common.constant.ErrorCodeEnum;
+import io.github.xxyopen.novel.core.common.exception.BusinessException;
 import io.github.xxyopen.novel.core.constant.CacheConsts;
 import io.github.xxyopen.novel.core.constant.DatabaseConsts;
 import io.github.xxyopen.novel.dao.entity.BookChapter;
@@ -8,13 +11,20 @@ import io.github.xxyopen.novel.dao.entity.BookInfo;
 import io.github.xxyopen.novel.dao.mapper.BookChapterMapper;
 import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
 import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 小说信息 缓存管理类
@@ -23,18 +33,34 @@ import java.util.List;
  * @date 2022/5/12
  */
 @Component
-@RequiredArgsConstructor
 public class BookInfoCacheManager {
 
     private final BookInfoMapper bookInfoMapper;
 
     private final BookChapterMapper bookChapterMapper;
 
+    private final BookIdFilterManager bookIdFilterManager;
+
+    private final BookChapterCacheManager bookChapterCacheManager;
+
+    private final Cache bookInfoCache;
+
+    public BookInfoCacheManager(BookInfoMapper bookInfoMapper,
+        BookChapterMapper bookChapterMapper, BookIdFilterManager bookIdFilterManager,
+        BookChapterCacheManager bookChapterCacheManager,
+        @Qualifier(CacheConsts.TWO_LEVEL_CACHE_MANAGER) CacheManager twoLevelCacheManager) {
+        this.bookInfoMapper = bookInfoMapper;
+        this.bookChapterMapper = bookChapterMapper;
+        this.bookIdFilterManager = bookIdFilterManager;
+        this.bookChapterCacheManager = bookChapterCacheManager;
+        this.bookInfoCache = twoLevelCacheManager.getCache(CacheConsts.BOOK_INFO_CACHE_NAME);
+    }
+
     /**
      * 从缓存中查询小说信息（先判断缓存中是否已存在，存在则直接从缓存中取，否则执行方法体中的逻辑后缓存结果）
      */
-    @Cacheable(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
-        value = CacheConsts.BOOK_INFO_CACHE_NAME)
+    @Cacheable(cacheManager = CacheConsts.TWO_LEVEL_CACHE_MANAGER,
+        value = CacheConsts.BOOK_INFO_CACHE_NAME, sync = true)
     public BookInfoRespDto getBookInfo(Long id) {
         return cachePutBookInfo(id);
     }
@@ -42,38 +68,34 @@ public class BookInfoCacheManager {
     /**
      * 缓存小说信息（不管缓存中是否存在都执行方法体中的逻辑，然后缓存起来）
      */
-    @CachePut(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
+    @CachePut(cacheManager = CacheConsts.TWO_LEVEL_CACHE_MANAGER,
         value = CacheConsts.BOOK_INFO_CACHE_NAME)
     public BookInfoRespDto cachePutBookInfo(Long id) {
+        // 拦截不存在的小说ID
+        bookIdFilterManager.checkBookId(id);
         // 查询基础信息
         BookInfo bookInfo = bookInfoMapper.selectById(id);
-        // 查询首章ID
-        QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
-        queryWrapper
-            .eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, id)
-            .orderByAsc(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM)
-            .last(DatabaseConsts.SqlEnum.LIMIT_1.getSql());
-        BookChapter firstBookChapter = bookChapterMapper.selectOne(queryWrapper);
+        if (Objects.isNull(bookInfo)) {
+            bookIdFilterManager.markBookMissing(id);
+            throw new BusinessException(ErrorCodeEnum.USER_REQUEST_PARAM_ERROR);
+        }
+        // 从章节目录中查询首章ID
+        Long firstChapterId = bookChapterCacheManager.getChapterDirectory(id).getFirstId();
         // 组装响应对象
-        return BookInfoRespDto.builder()
-            .id(bookInfo.getId())
-            .bookName(bookInfo.getBookName())
-            .bookDesc(bookInfo.getBookDesc())
-            .bookStatus(bookInfo.getBookStatus())
-            .authorId(bookInfo.getAuthorId())
-            .authorName(bookInfo.getAuthorName())
-            .categoryId(bookInfo.getCategoryId())
-            .categoryName(bookInfo.getCategoryName())
-            .commentCount(bookInfo.getCommentCount())
-            .firstChapterId(firstBookChapter.getId())
-            .lastChapterId(bookInfo.getLastChapterId())
-            .picUrl(bookInfo.getPicUrl())
-            .visitCount(bookInfo.getVisitCount())
-            .wordCount(bookInfo.getWordCount())
-            .build();
+        return buildBookInfoRespDto(bookInfo, firstChapterId);
     }
 
-    @CacheEvict(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
+    /**
+     * 批量查询小说信息：本地缓存、远程缓存依次批量查询，都未命中的小说通过一次 IN 查询从数据库加载
+     *
+     * @param ids 小说ID列表
+     * @return 小说ID -> 小说信息，不包含不存在的小说
+     */
+    public Map<Long, BookInfoRespDto> getBookInfos(Collection<Long> ids) {
+        return BatchCache.getAll(bookInfoCache, ids, this::listBookInfos);
+    }
+
+    @CacheEvict(cacheManager = CacheConsts.TWO_LEVEL_CACHE_MANAGER,
         value = CacheConsts.BOOK_INFO_CACHE_NAME)
     public void evictBookInfoCache(Long bookId) {
         // 调用此方法自动清除小说信息的缓存
@@ -93,4 +115,40 @@ public class BookInfoCacheManager {
         return bookInfoMapper.selectList(queryWrapper).stream().map(BookInfo::getId).toList();
     }
 
+    private Map<Long, BookInfoRespDto> listBookInfos(Set<Long> ids) {
+        // 拦截不存在的小说ID
+        List<Long> bookIds = ids.stream().filter(bookIdFilterManager::mightExistBookId).toList();
+        if (bookIds.isEmpty()) {
+            return Map.of();
+        }
+        List<BookInfo> bookInfos = bookInfoMapper.selectBatchIds(bookIds);
+        Map<Long, Long> firstChapterIdMap = bookChapterMapper.listFirstChapters(bookIds).stream()
+            .collect(Collectors.toMap(BookChapter::getBookId, BookChapter::getId, (a, b) -> a));
+        Map<Long, BookInfoRespDto> result = bookInfos.stream().collect(
+            Collectors.toMap(BookInfo::getId,
+                v -> buildBookInfoRespDto(v, firstChapterIdMap.get(v.getId()))));
+        bookIds.stream().filter(id -> !result.containsKey(id))
+            .forEach(bookIdFilterManager::markBookMissing);
+        return result;
+    }
+
+    private static BookInfoRespDto buildBookInfoRespDto(BookInfo bookInfo, Long firstChapterId) {
+        return BookInfoRespDto.builder()
+            .id(bookInfo.getId())
+            .bookName(bookInfo.getBookName())
+            .bookDesc(bookInfo.getBookDesc())
+            .bookStatus(bookInfo.getBookStatus())
+            .authorId(bookInfo.getAuthorId())
+            .authorName(bookInfo.getAuthorName())
+            .categoryId(bookInfo.getCategoryId())
+            .categoryName(bookInfo.getCategoryName())
+            .commentCount(bookInfo.getCommentCount())
+            .firstChapterId(firstChapterId)
+            .lastChapterId(bookInfo.getLastChapterId())
+            .picUrl(bookInfo.getPicUrl())
+            .visitCount(bookInfo.getVisitCount())
+            .wordCount(bookInfo.getWordCount())
+            .build();
+    }
+
 }
@@ -6,7 +6,12 @@ import io.github.xxyopen.novel.core.constant.DatabaseConsts;
 import io.github.xxyopen.novel.dao.entity.BookInfo;
 import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
 import io.github.xxyopen.novel.dto.resp.BookRankRespDto;
+import io.github.xxyopen.novel.manager.redis.BookTrendingManager;
+import io.github.xxyopen.novel.manager.redis.BookVisitRankManager;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
@@ -21,24 +26,54 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class BookRankCacheManager {
 
+    /**
+     * 排行榜小说数量
+     */
+    private static final int RANK_BOOK_COUNT = 30;
+
     private final BookInfoMapper bookInfoMapper;
 
+    private final BookVisitRankManager bookVisitRankManager;
+
+    private final BookTrendingManager bookTrendingManager;
+
     /**
      * 查询小说点击榜列表，并放入缓存中
+     * <p>
+     * 排名从 Redis 有序集合中实时读取，只按主键查询上榜小说的详细信息，所以缓存时间很短。
      */
-    @Cacheable(cacheManager = CacheConsts.REDIS_CACHE_MANAGER,
-        value = CacheConsts.BOOK_VISIT_RANK_CACHE_NAME)
+    @Cacheable(cacheManager = CacheConsts.TWO_LEVEL_CACHE_MANAGER,
+        value = CacheConsts.BOOK_VISIT_RANK_CACHE_NAME, sync = true)
     public List<BookRankRespDto> listVisitRankBooks() {
-        QueryWrapper<BookInfo> bookInfoQueryWrapper = new QueryWrapper<>();
-        bookInfoQueryWrapper.orderByDesc(DatabaseConsts.BookTable.COLUMN_VISIT_COUNT);
-        return listRankBooks(bookInfoQueryWrapper);
+        List<Long> bookIds = bookVisitRankManager.listTopBookIds(RANK_BOOK_COUNT);
+        if (bookIds.isEmpty()) {
+            // 排行榜还没有建立，从数据库中查询
+            QueryWrapper<BookInfo> bookInfoQueryWrapper = new QueryWrapper<>();
+            bookInfoQueryWrapper.orderByDesc(DatabaseConsts.BookTable.COLUMN_VISIT_COUNT);
+            return listRankBooks(bookInfoQueryWrapper);
+        }
+        return listRankBooks(bookIds);
+    }
+
+    /**
+     * 查询小说热度榜列表，并放入缓存中
+     */
+    @Cacheable(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
+        value = CacheConsts.BOOK_TRENDING_RANK_CACHE_NAME, sync = true)
+    public List<BookRankRespDto> listTrendingRankBooks() {
+        List<Long> bookIds = bookTrendingManager.listTopBookIds(RANK_BOOK_COUNT);
+        if (bookIds.isEmpty()) {
+            // 还没有热度数据（例如刚部署），使用点击榜
+            return listVisitRankBooks();
+        }
+        return listRankBooks(bookIds);
     }
 
     /**
      * 查询小说新书榜列表，并放入缓存中
      */
     @Cacheable(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
-        value = CacheConsts.BOOK_NEWEST_RANK_CACHE_NAME)
+        value = CacheConsts.BOOK_NEWEST_RANK_CACHE_NAME, sync = true)
     public List<BookRankRespDto> listNewestRankBooks() {
         QueryWrapper<BookInfo> bookInfoQueryWrapper = new QueryWrapper<>();
         bookInfoQueryWrapper
@@ -51,7 +86,7 @@ public class BookRankCacheManager {
      * 查询小说更新榜列表，并放入缓存中
      */
     @Cacheable(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
-        value = CacheConsts.BOOK_UPDATE_RANK_CACHE_NAME)
+        value = CacheConsts.BOOK_UPDATE_RANK_CACHE_NAME, sync = true)
     public List<BookRankRespDto> listUpdateRankBooks() {
         QueryWrapper<BookInfo> bookInfoQueryWrapper = new QueryWrapper<>();
         bookInfoQueryWrapper
@@ -64,20 +99,34 @@ public class BookRankCacheManager {
         bookInfoQueryWrapper
             .gt(DatabaseConsts.BookTable.COLUMN_WORD_COUNT, 0)
             .last(DatabaseConsts.SqlEnum.LIMIT_30.getSql());
-        return bookInfoMapper.selectList(bookInfoQueryWrapper).stream().map(v -> {
-            BookRankRespDto respDto = new BookRankRespDto();
-            respDto.setId(v.getId());
-            respDto.setCategoryId(v.getCategoryId());
-            respDto.setCategoryName(v.getCategoryName());
-            respDto.setBookName(v.getBookName());
-            respDto.setAuthorName(v.getAuthorName());
-            respDto.setPicUrl(v.getPicUrl());
-            respDto.setBookDesc(v.getBookDesc());
-            respDto.setLastChapterName(v.getLastChapterName());
-            respDto.setLastChapterUpdateTime(v.getLastChapterUpdateTime());
-            respDto.setWordCount(v.getWordCount());
-            return respDto;
-        }).toList();
+        return bookInfoMapper.selectList(bookInfoQueryWrapper).stream()
+            .map(BookRankCacheManager::buildBookRankRespDto).toList();
+    }
+
+    /**
+     * 按主键查询上榜小说，保持传入的排名顺序
+     */
+    private List<BookRankRespDto> listRankBooks(List<Long> bookIds) {
+        Map<Long, BookInfo> bookInfoMap = bookInfoMapper.selectBatchIds(bookIds).stream()
+            .collect(Collectors.toMap(BookInfo::getId, Function.identity()));
+        return bookIds.stream().map(bookInfoMap::get)
+            .filter(v -> v != null && v.getWordCount() > 0)
+            .map(BookRankCacheManager::buildBookRankRespDto).toList();
+    }
+
+    static BookRankRespDto buildBookRankRespDto(BookInfo bookInfo) {
+        BookRankRespDto respDto = new BookRankRespDto();
+        respDto.setId(bookInfo.getId());
+        respDto.setCategoryId(bookInfo.getCategoryId());
+        respDto.setCategoryName(bookInfo.getCategoryName());
+        respDto.setBookName(bookInfo.getBookName());
+        respDto.setAuthorName(bookInfo.getAuthorName());
+        respDto.setPicUrl(bookInfo.getPicUrl());
+        respDto.setBookDesc(bookInfo.getBookDesc());
+        respDto.setLastChapterName(bookInfo.getLastChapterName());
+        respDto.setLastChapterUpdateTime(bookInfo.getLastChapterUpdateTime());
+        respDto.setWordCount(bookInfo.getWordCount());
+        return respDto;
     }
 
 }
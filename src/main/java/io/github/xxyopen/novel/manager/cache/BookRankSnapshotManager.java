@@ -0,0 +1,265 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import io.github.xxyopen.novel.dto.BookRankSnapshotDto;
+import io.github.xxyopen.novel.dto.resp.BookRankRespDto;
+import io.github.xxyopen.novel.manager.redis.BookVisitRankManager;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说排行榜快照 管理类
+ * <p>
+ * 定时批量计算日榜、周榜、月榜，以及每个周期下各作品方向、各类别的榜单：并行读取最近 30 天的每日点击量，并行汇总各时间窗口的点击量，
+ * 再按作品方向和类别分组取前 30 名。所有榜单写成一个快照放入缓存，接口直接从快照中读取，增加榜单维度不会增加请求时的数据库查询。
+ * 多个节点在同一刷新间隔内只有一个节点执行计算。
+ */
+@Component
+@Slf4j
+public class BookRankSnapshotManager {
+
+    /**
+     * 每个榜单的小说数量
+     */
+    private static final int RANK_BOOK_COUNT = 30;
+
+    /**
+     * 每次查询的小说数量
+     */
+    private static final int QUERY_BATCH_SIZE = 1000;
+
+    private static final String SNAPSHOT_KEY = "snapshot";
+
+    private static final String REFRESH_LOCK_KEY =
+        CacheConsts.REDIS_CACHE_PREFIX + CacheConsts.BOOK_RANK_SNAPSHOT_CACHE_NAME + "::refresh";
+
+    private final BookInfoMapper bookInfoMapper;
+
+    private final BookVisitRankManager bookVisitRankManager;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final Cache snapshotCache;
+
+    /**
+     * 刷新间隔（毫秒）
+     */
+    private final long refreshInterval;
+
+    public BookRankSnapshotManager(BookInfoMapper bookInfoMapper,
+        BookVisitRankManager bookVisitRankManager, StringRedisTemplate stringRedisTemplate,
+        @Qualifier(CacheConsts.TWO_LEVEL_CACHE_MANAGER) CacheManager twoLevelCacheManager,
+        @Value("${novel.rank.refresh-interval:600000}") long refreshInterval) {
+        this.bookInfoMapper = bookInfoMapper;
+        this.bookVisitRankManager = bookVisitRankManager;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.snapshotCache = twoLevelCacheManager.getCache(
+            CacheConsts.BOOK_RANK_SNAPSHOT_CACHE_NAME);
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * 查询排行榜，快照还没有生成时返回空列表
+     *
+     * @param period        统计周期
+     * @param categoryId    类别ID
+     * @param workDirection 作品方向
+     */
+    public List<BookRankRespDto> listRankBooks(PeriodEnum period, Long categoryId,
+        Integer workDirection) {
+        BookRankSnapshotDto snapshot = snapshotCache.get(SNAPSHOT_KEY, BookRankSnapshotDto.class);
+        if (Objects.isNull(snapshot)) {
+            return Collections.emptyList();
+        }
+        return snapshot.getRank(
+            BookRankSnapshotDto.rankKey(period.getCode(), categoryId, workDirection));
+    }
+
+    /**
+     * 重新计算所有排行榜
+     */
+    @Scheduled(fixedDelayString = "${novel.rank.refresh-interval:600000}")
+    public void refresh() {
+        Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(REFRESH_LOCK_KEY, "1",
+            Duration.ofMillis(refreshInterval));
+        if (!Boolean.TRUE.equals(acquired)) {
+            return;
+        }
+        try {
+            BookRankSnapshotDto snapshot = buildSnapshot();
+            snapshotCache.put(SNAPSHOT_KEY, snapshot);
+            log.info("小说排行榜快照已生成，榜单数量：{}", snapshot.getRankCount());
+        } catch (Exception e) {
+            log.error("小说排行榜快照生成失败：{}", e.getMessage(), e);
+            stringRedisTemplate.delete(REFRESH_LOCK_KEY);
+        }
+    }
+
+    private BookRankSnapshotDto buildSnapshot() {
+        // 1.并行读取最近 30 天的每日点击量，第 i 个元素为 i 天前的点击量
+        LocalDate today = LocalDate.now();
+        int maxDays = PeriodEnum.MONTH.getDays();
+        List<Map<Long, Long>> dayVisitCounts = IntStream.range(0, maxDays).parallel()
+            .mapToObj(i -> bookVisitRankManager.listDayVisitCounts(today.minusDays(i)))
+            .toList();
+
+        // 2.查询有点击量的小说的类别和作品方向（只包含有字数的小说）
+        Set<Long> bookIds = new HashSet<>();
+        dayVisitCounts.forEach(v -> bookIds.addAll(v.keySet()));
+        Map<Long, BookInfo> bookMetas = listBookMetas(bookIds);
+
+        // 3.按时间窗口汇总点击量，并按作品方向和类别分组计算榜单
+        Map<String, long[]> ranks = new HashMap<>();
+        for (PeriodEnum period : PeriodEnum.values()) {
+            ConcurrentMap<Long, Long> visitCounts = dayVisitCounts.subList(0, period.getDays())
+                .parallelStream()
+                .flatMap(v -> v.entrySet().stream())
+                .filter(v -> bookMetas.containsKey(v.getKey()))
+                .collect(Collectors.toConcurrentMap(Map.Entry::getKey, Map.Entry::getValue,
+                    Long::sum));
+            ranks.put(BookRankSnapshotDto.rankKey(period.getCode(), null, null),
+                topBookIds(visitCounts.keySet(), visitCounts));
+            visitCounts.keySet().parallelStream()
+                .filter(v -> Objects.nonNull(bookMetas.get(v).getWorkDirection()))
+                .collect(Collectors.groupingByConcurrent(v -> bookMetas.get(v).getWorkDirection()))
+                .forEach((workDirection, ids) -> ranks.put(
+                    BookRankSnapshotDto.rankKey(period.getCode(), null, workDirection),
+                    topBookIds(ids, visitCounts)));
+            visitCounts.keySet().parallelStream()
+                .filter(v -> Objects.nonNull(bookMetas.get(v).getCategoryId()))
+                .collect(Collectors.groupingByConcurrent(v -> bookMetas.get(v).getCategoryId()))
+                .forEach((categoryId, ids) -> ranks.put(
+                    BookRankSnapshotDto.rankKey(period.getCode(), categoryId, null),
+                    topBookIds(ids, visitCounts)));
+        }
+
+        // 4.查询所有上榜小说的信息，每本小说只保存一份
+        Set<Long> rankBookIds = new HashSet<>();
+        ranks.values().forEach(v -> {
+            for (long bookId : v) {
+                rankBookIds.add(bookId);
+            }
+        });
+        Map<Long, BookRankRespDto> books = new HashMap<>(rankBookIds.size() * 2);
+        for (List<Long> batch : partition(rankBookIds)) {
+            bookInfoMapper.selectBatchIds(batch).forEach(
+                v -> books.put(v.getId(), BookRankCacheManager.buildBookRankRespDto(v)));
+        }
+        return new BookRankSnapshotDto(ranks, books, LocalDateTime.now());
+    }
+
+    /**
+     * 并行分批查询小说的类别和作品方向
+     */
+    private Map<Long, BookInfo> listBookMetas(Collection<Long> bookIds) {
+        return partition(bookIds).parallelStream().flatMap(batch -> {
+                QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+                queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName(),
+                        DatabaseConsts.BookTable.COLUMN_CATEGORY_ID,
+                        DatabaseConsts.BookTable.COLUMN_WORK_DIRECTION)
+                    .in(DatabaseConsts.CommonColumnEnum.ID.getName(), batch)
+                    .gt(DatabaseConsts.BookTable.COLUMN_WORD_COUNT, 0);
+                return bookInfoMapper.selectList(queryWrapper).stream();
+            })
+            .collect(Collectors.toMap(BookInfo::getId, Function.identity()));
+    }
+
+    private static long[] topBookIds(Collection<Long> bookIds, Map<Long, Long> visitCounts) {
+        return bookIds.stream()
+            .sorted((a, b) -> {
+                int result = Long.compare(visitCounts.get(b), visitCounts.get(a));
+                return result != 0 ? result : Long.compare(a, b);
+            })
+            .limit(RANK_BOOK_COUNT)
+            .mapToLong(Long::longValue)
+            .toArray();
+    }
+
+    private static List<List<Long>> partition(Collection<Long> bookIds) {
+        List<List<Long>> batches = new ArrayList<>();
+        List<Long> batch = new ArrayList<>(QUERY_BATCH_SIZE);
+        for (Long bookId : bookIds) {
+            batch.add(bookId);
+            if (batch.size() == QUERY_BATCH_SIZE) {
+                batches.add(batch);
+                batch = new ArrayList<>(QUERY_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * 排行榜统计周期
+     */
+    public enum PeriodEnum {
+
+        DAY("day", 1),
+
+        WEEK("week", 7),
+
+        MONTH("month", 30);
+
+        private final String code;
+
+        /**
+         * 统计天数（包含今天）
+         */
+        private final int days;
+
+        PeriodEnum(String code, int days) {
+            this.code = code;
+            this.days = days;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        /**
+         * 根据编码查询统计周期，不存在时返回 null
+         */
+        public static PeriodEnum of(String code) {
+            for (PeriodEnum period : values()) {
+                if (period.code.equals(code)) {
+                    return period;
+                }
+            }
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,124 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import io.github.xxyopen.novel.core.cache.CacheInvalidationBus;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.dto.req.BookSearchReqDto;
+import io.github.xxyopen.novel.manager.mq.BookChangeEvent;
+import io.github.xxyopen.novel.manager.mq.BookSearchIndexChangeEvent;
+import java.lang.reflect.Method;
+import java.util.Objects;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 小说搜索结果缓存 管理类
+ * <p>
+ * 搜索结果缓存在本地，缓存 key 由规范化后的搜索条件生成：关键字去掉首尾空白并转为小写，过滤条件按固定顺序拼接（未设置的条件不参与），
+ * 排序字段转为小写并合并空白，最后拼接分页参数。只是大小写、空白或参数顺序不同的请求命中同一个缓存项。
+ * <p>
+ * 任意小说信息改变后清空整个缓存（粗粒度失效）：
+ * <ul>
+ *     <li>搜索 Elasticsearch 或数据库时，本节点在事务提交后清空，其它节点通过缓存失效广播清空</li>
+ *     <li>搜索本地索引时，每个节点的本地索引加入或重新加载小说后清空本节点的缓存，避免索引更新前的搜索结果被重新缓存</li>
+ * </ul>
+ */
+@Component(CacheConsts.BOOK_SEARCH_KEY_GENERATOR)
+public class BookSearchCacheManager implements KeyGenerator {
+
+    private final Cache searchResultCache;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    /**
+     * 是否搜索本地索引
+     */
+    private final boolean localIndex;
+
+    public BookSearchCacheManager(
+        @Qualifier(CacheConsts.CAFFEINE_CACHE_MANAGER) CacheManager caffeineCacheManager,
+        CacheInvalidationBus cacheInvalidationBus,
+        ObjectProvider<BookSearchIndexManager> bookSearchIndexManager) {
+        this.searchResultCache = caffeineCacheManager.getCache(
+            CacheConsts.BOOK_SEARCH_RESULT_CACHE_NAME);
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.localIndex = Objects.nonNull(bookSearchIndexManager.getIfAvailable());
+    }
+
+    @Override
+    @NonNull
+    public Object generate(@NonNull Object target, @NonNull Method method,
+        @NonNull Object... params) {
+        return buildKey((BookSearchReqDto) params[0]);
+    }
+
+    /**
+     * 小说信息改变后清空搜索结果缓存，搜索本地索引时等索引更新后再清空
+     */
+    @EventListener
+    public void onBookChange(BookChangeEvent event) {
+        if (localIndex) {
+            return;
+        }
+        // 广播在事务提交后发送
+        cacheInvalidationBus.publishClear(CacheConsts.BOOK_SEARCH_RESULT_CACHE_NAME);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        searchResultCache.clear();
+                    }
+                });
+            return;
+        }
+        searchResultCache.clear();
+    }
+
+    /**
+     * 本地索引改变后清空本节点的搜索结果缓存，其它节点的本地索引各自更新
+     */
+    @EventListener
+    public void onSearchIndexChange(BookSearchIndexChangeEvent event) {
+        searchResultCache.clear();
+    }
+
+    /**
+     * 生成规范化的缓存 key
+     */
+    static String buildKey(BookSearchReqDto condition) {
+        StringBuilder key = new StringBuilder();
+        String keyword = condition.getKeyword();
+        if (Objects.nonNull(keyword) && !keyword.isBlank()) {
+            key.append("keyword=").append(keyword.trim().toLowerCase());
+        }
+        append(key, "bookStatus", condition.getBookStatus());
+        append(key, "categoryId", condition.getCategoryId());
+        append(key, "isVip", condition.getIsVip());
+        append(key, "updateTimeMin", Objects.nonNull(condition.getUpdateTimeMin())
+            ? condition.getUpdateTimeMin().getTime() : null);
+        append(key, "wordCountMax", condition.getWordCountMax());
+        append(key, "wordCountMin", condition.getWordCountMin());
+        append(key, "workDirection", condition.getWorkDirection());
+        String sort = condition.getSort();
+        if (Objects.nonNull(sort) && !sort.isBlank()) {
+            append(key, "sort", sort.trim().replaceAll("\\s+", " ").toLowerCase());
+        }
+        return key.append("&page=").append(condition.getPageNum()).append(',')
+            .append(condition.getPageSize()).toString();
+    }
+
+    private static void append(StringBuilder key, String name, Object value) {
+        if (Objects.nonNull(value)) {
+            key.append('&').append(name).append('=').append(value);
+        }
+    }
+
+}
@@ -0,0 +1,563 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.common.resp.PageRespDto;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import io.github.xxyopen.novel.dto.req.BookSearchReqDto;
+import io.github.xxyopen.novel.manager.mq.BookChangeEvent;
+import io.github.xxyopen.novel.manager.mq.BookSearchIndexChangeEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 小说搜索索引 管理类
+ * <p>
+ * 数据库搜索模式下的本地倒排索引：小说名和作者名按单个字符和相邻两个字符（CJK bigram）建立索引，简介按相邻两个字符建立索引，
+ * 每个词项的倒排表是按文档位置升序排列的 int 数组。关键字的所有 bigram 求交集得到候选小说，小说名和作者名的匹配再用包含判断校验
+ * （和数据库 like 查询结果一致），简介只按 bigram 匹配。过滤条件和排序字段保存在内存中，搜索和分页都不访问数据库。
+ * <p>
+ * 启动时在后台线程中全量建立索引，之后：
+ * <ul>
+ *     <li>本节点修改的小说在事务提交后通过小说信息改变事件重新加载</li>
+ *     <li>定时加入其它节点新创建的小说</li>
+ *     <li>定时全量重建，同步其它节点修改的小说</li>
+ * </ul>
+ * 增量加载的小说先保存在待合并表中，搜索时逐一匹配并覆盖索引中的同一本小说，数量较多时提前全量重建。
+ * 索引改变后发布小说搜索索引改变事件，清空基于旧索引的搜索结果缓存。
+ */
+@Component
+@ConditionalOnExpression("!${spring.elasticsearch.enabled:true}"
+    + " and ${novel.search.local-index.enabled:true}")
+@Slf4j
+public class BookSearchIndexManager {
+
+    /**
+     * 全量建立索引时每次查询的小说数量
+     */
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    /**
+     * 待合并表的最大小说数量，超过后全量重建
+     */
+    private static final int MAX_PENDING_BOOKS = 1000;
+
+    /**
+     * 参与索引的简介最大长度
+     */
+    private static final int MAX_DESC_LENGTH = 300;
+
+    private final BookInfoMapper bookInfoMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 加入新创建小说的间隔（毫秒）
+     */
+    private final long syncInterval;
+
+    /**
+     * 全量重建的间隔（毫秒）
+     */
+    private final long rebuildInterval;
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * 索引，全量建立完成前为 null
+     */
+    private volatile SearchIndex index;
+
+    /**
+     * 待合并的小说，搜索时覆盖索引中的同一本小说
+     */
+    private final Map<Long, PendingDoc> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 已加入索引的最大小说ID，只在后台线程中访问
+     */
+    private long maxBookId;
+
+    public BookSearchIndexManager(BookInfoMapper bookInfoMapper,
+        ApplicationEventPublisher eventPublisher,
+        @Value("${novel.search.local-index.sync-interval:10000}") long syncInterval,
+        @Value("${novel.search.local-index.rebuild-interval:1800000}") long rebuildInterval) {
+        this.bookInfoMapper = bookInfoMapper;
+        this.eventPublisher = eventPublisher;
+        this.syncInterval = syncInterval;
+        this.rebuildInterval = rebuildInterval;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("search-index-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @PostConstruct
+    public void init() {
+        executor.execute(this::rebuild);
+        executor.scheduleWithFixedDelay(this::syncNewBooks, syncInterval, syncInterval,
+            TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::rebuild, rebuildInterval, rebuildInterval,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 索引是否已经建立
+     */
+    public boolean isReady() {
+        return Objects.nonNull(index);
+    }
+
+    /**
+     * 小说信息改变后（事务提交后）重新加载该小说
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChange(BookChangeEvent event) {
+        executor.execute(() -> reload(event.bookId()));
+    }
+
+    /**
+     * 搜索小说
+     *
+     * @param condition 搜索条件
+     * @return 当前页的小说ID
+     */
+    public PageRespDto<Long> search(BookSearchReqDto condition) {
+        SearchIndex current = index;
+        List<SearchDoc> matched = new ArrayList<>();
+        String keyword = null;
+        if (Objects.nonNull(condition.getKeyword()) && !condition.getKeyword().isEmpty()) {
+            keyword = normalize(condition.getKeyword(), Integer.MAX_VALUE);
+            if (keyword.isEmpty()) {
+                return PageRespDto.of(condition.getPageNum(), condition.getPageSize(), 0,
+                    Collections.emptyList());
+            }
+        }
+        long updateTimeMin = Objects.nonNull(condition.getUpdateTimeMin())
+            ? condition.getUpdateTimeMin().getTime() : Long.MIN_VALUE;
+
+        int[] queryGrams = Objects.isNull(keyword) ? null : queryGrams(keyword);
+
+        // 1.索引中匹配的小说
+        if (Objects.isNull(keyword)) {
+            for (SearchDoc doc : current.docs) {
+                addIfMatches(doc, condition, updateTimeMin, matched);
+            }
+        } else {
+            // 合并小说名/作者名和简介的候选小说（都是升序），小说名/作者名的候选需要校验是否包含关键字
+            int[] titleHits = current.titlePostings.intersect(queryGrams);
+            int[] descHits = keyword.length() > 1
+                ? current.descPostings.intersect(queryGrams) : new int[0];
+            int i = 0;
+            int j = 0;
+            while (i < titleHits.length || j < descHits.length) {
+                int position = j >= descHits.length
+                    || i < titleHits.length && titleHits[i] <= descHits[j]
+                    ? titleHits[i++] : descHits[j];
+                boolean descHit = j < descHits.length && descHits[j] == position;
+                if (descHit) {
+                    j++;
+                }
+                SearchDoc doc = current.docs[position];
+                if (descHit || doc.matchesTitle(keyword)) {
+                    addIfMatches(doc, condition, updateTimeMin, matched);
+                }
+            }
+        }
+
+        // 2.待合并表中匹配的小说
+        for (PendingDoc pendingDoc : pending.values()) {
+            if ((Objects.isNull(keyword) || pendingDoc.doc.matchesTitle(keyword)
+                || keyword.length() > 1 && containsAll(pendingDoc.descGrams, queryGrams))
+                && pendingDoc.doc.matches(condition, updateTimeMin)) {
+                matched.add(pendingDoc.doc);
+            }
+        }
+
+        // 3.排序和分页
+        matched.sort(comparator(condition.getSort()));
+        int from = (int) Math.min(
+            Math.max(condition.getPageNum() - 1L, 0) * condition.getPageSize(), matched.size());
+        int to = (int) Math.min((long) from + condition.getPageSize(), matched.size());
+        return PageRespDto.of(condition.getPageNum(), condition.getPageSize(), matched.size(),
+            matched.subList(from, to).stream().map(SearchDoc::id).toList());
+    }
+
+    private void addIfMatches(SearchDoc doc, BookSearchReqDto condition, long updateTimeMin,
+        List<SearchDoc> matched) {
+        if (!pending.containsKey(doc.id()) && doc.matches(condition, updateTimeMin)) {
+            matched.add(doc);
+        }
+    }
+
+    /**
+     * 全量建立索引
+     */
+    private void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            List<SearchDoc> docs = new ArrayList<>();
+            PostingsBuilder titleBuilder = new PostingsBuilder();
+            PostingsBuilder descBuilder = new PostingsBuilder();
+            long lastId = 0;
+            while (true) {
+                QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+                queryWrapper.gt(DatabaseConsts.CommonColumnEnum.ID.getName(), lastId)
+                    .orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+                    .last(DatabaseConsts.SqlEnum.LIMIT_1000.getSql());
+                List<BookInfo> bookInfos = bookInfoMapper.selectList(queryWrapper);
+                for (BookInfo bookInfo : bookInfos) {
+                    int position = docs.size();
+                    SearchDoc doc = SearchDoc.of(bookInfo);
+                    docs.add(doc);
+                    titleBuilder.add(titleGrams(doc), position);
+                    descBuilder.add(descGrams(bookInfo), position);
+                }
+                if (bookInfos.size() < SCAN_BATCH_SIZE) {
+                    break;
+                }
+                lastId = bookInfos.get(bookInfos.size() - 1).getId();
+            }
+            index = new SearchIndex(docs.toArray(new SearchDoc[0]), titleBuilder.build(),
+                descBuilder.build());
+            // 后台线程串行执行，待合并的小说都已经包含在新索引中
+            pending.clear();
+            maxBookId = docs.isEmpty() ? 0 : docs.get(docs.size() - 1).id();
+            eventPublisher.publishEvent(new BookSearchIndexChangeEvent());
+            log.info("小说搜索索引建立完成，小说数：{}，耗时：{}ms", docs.size(),
+                System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("小说搜索索引建立失败：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 加入新创建的小说
+     */
+    private void syncNewBooks() {
+        if (Objects.isNull(index)) {
+            return;
+        }
+        try {
+            QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.gt(DatabaseConsts.CommonColumnEnum.ID.getName(), maxBookId)
+                .orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+                .last(DatabaseConsts.SqlEnum.LIMIT_1000.getSql());
+            List<BookInfo> bookInfos = bookInfoMapper.selectList(queryWrapper);
+            for (BookInfo bookInfo : bookInfos) {
+                addPending(bookInfo);
+                maxBookId = Math.max(maxBookId, bookInfo.getId());
+            }
+            if (!bookInfos.isEmpty()) {
+                eventPublisher.publishEvent(new BookSearchIndexChangeEvent());
+            }
+        } catch (Exception e) {
+            log.error("小说搜索索引同步失败：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 重新加载一本小说
+     */
+    private void reload(Long bookId) {
+        if (Objects.isNull(index)) {
+            return;
+        }
+        try {
+            BookInfo bookInfo = bookInfoMapper.selectById(bookId);
+            if (Objects.nonNull(bookInfo)) {
+                addPending(bookInfo);
+                eventPublisher.publishEvent(new BookSearchIndexChangeEvent());
+            }
+        } catch (Exception e) {
+            log.error("小说搜索索引更新失败：{}", bookId, e);
+        }
+    }
+
+    private void addPending(BookInfo bookInfo) {
+        SearchDoc doc = SearchDoc.of(bookInfo);
+        pending.put(doc.id(), new PendingDoc(doc, descGrams(bookInfo)));
+        if (pending.size() > MAX_PENDING_BOOKS) {
+            rebuild();
+        }
+    }
+
+    private static Comparator<SearchDoc> comparator(String sort) {
+        Comparator<SearchDoc> byId = Comparator.comparingLong(SearchDoc::id);
+        if (Objects.isNull(sort) || sort.isBlank()) {
+            return byId;
+        }
+        String[] parts = sort.trim().split("\\s+");
+        Comparator<SearchDoc> comparator = switch (parts[0].toLowerCase()) {
+            case "word_count" -> Comparator.comparingInt(SearchDoc::wordCount);
+            case "visit_count" -> Comparator.comparingLong(SearchDoc::visitCount);
+            case "last_chapter_update_time" ->
+                Comparator.comparingLong(SearchDoc::lastChapterUpdateTime);
+            case "create_time" -> Comparator.comparingLong(SearchDoc::createTime);
+            default -> null;
+        };
+        if (Objects.isNull(comparator)) {
+            return byId;
+        }
+        if (parts.length > 1 && "desc".equalsIgnoreCase(parts[1])) {
+            comparator = comparator.reversed();
+        }
+        return comparator.thenComparing(byId);
+    }
+
+    /**
+     * 去掉空白和标点并转为小写
+     */
+    private static String normalize(String text, int maxLength) {
+        if (Objects.isNull(text)) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(Math.min(text.length(), maxLength));
+        for (int i = 0; i < text.length() && sb.length() < maxLength; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 小说名和作者名的词项：单个字符和相邻两个字符
+     */
+    private static int[] titleGrams(SearchDoc doc) {
+        int[] nameGrams = grams(doc.name(), true);
+        int[] authorGrams = grams(doc.author(), true);
+        int[] all = Arrays.copyOf(nameGrams, nameGrams.length + authorGrams.length);
+        System.arraycopy(authorGrams, 0, all, nameGrams.length, authorGrams.length);
+        return Arrays.stream(all).sorted().distinct().toArray();
+    }
+
+    /**
+     * 简介的词项：相邻两个字符
+     */
+    private static int[] descGrams(BookInfo bookInfo) {
+        return Arrays.stream(grams(normalize(bookInfo.getBookDesc(), MAX_DESC_LENGTH), false))
+            .sorted().distinct().toArray();
+    }
+
+    /**
+     * 关键字的词项：单个字符的关键字使用单字，否则使用所有相邻两个字符
+     */
+    private static int[] queryGrams(String keyword) {
+        int[] grams = keyword.length() == 1 ? new int[]{keyword.charAt(0)}
+            : grams(keyword, false);
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    /**
+     * 字符 c1 c2 组成的词项为 c1 << 16 | c2，单个字符的词项为字符本身（规范化后的文本不包含 \0，两者不会冲突）
+     */
+    private static int[] grams(String text, boolean withUnigrams) {
+        int length = text.length();
+        if (length == 0) {
+            return new int[0];
+        }
+        int[] grams = new int[(withUnigrams ? length : 0) + length - 1];
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            if (withUnigrams) {
+                grams[n++] = text.charAt(i);
+            }
+            if (i + 1 < length) {
+                grams[n++] = text.charAt(i) << 16 | text.charAt(i + 1);
+            }
+        }
+        return grams;
+    }
+
+    private static boolean containsAll(int[] sortedGrams, int[] grams) {
+        for (int gram : grams) {
+            if (Arrays.binarySearch(sortedGrams, gram) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 搜索文档：小说名和作者名（规范化后）以及过滤、排序字段，为 null 的字段使用不会被匹配的默认值
+     */
+    private record SearchDoc(long id, String name, String author, int workDirection,
+                             long categoryId, int isVip, int bookStatus, int wordCount,
+                             long visitCount, long lastChapterUpdateTime, long createTime) {
+
+        static SearchDoc of(BookInfo bookInfo) {
+            return new SearchDoc(bookInfo.getId(),
+                normalize(bookInfo.getBookName(), Integer.MAX_VALUE),
+                normalize(bookInfo.getAuthorName(), Integer.MAX_VALUE),
+                Objects.requireNonNullElse(bookInfo.getWorkDirection(), -1),
+                Objects.requireNonNullElse(bookInfo.getCategoryId(), -1L),
+                Objects.requireNonNullElse(bookInfo.getIsVip(), -1),
+                Objects.requireNonNullElse(bookInfo.getBookStatus(), -1),
+                Objects.requireNonNullElse(bookInfo.getWordCount(), 0),
+                Objects.requireNonNullElse(bookInfo.getVisitCount(), 0L),
+                toEpochMilli(bookInfo.getLastChapterUpdateTime()),
+                toEpochMilli(bookInfo.getCreateTime()));
+        }
+
+        boolean matchesTitle(String keyword) {
+            return name.contains(keyword) || author.contains(keyword);
+        }
+
+        /**
+         * 是否满足过滤条件（和数据库搜索的条件一致）
+         */
+        boolean matches(BookSearchReqDto condition, long updateTimeMin) {
+            return wordCount > 0
+                && (Objects.isNull(condition.getWorkDirection())
+                || workDirection == condition.getWorkDirection())
+                && (Objects.isNull(condition.getCategoryId())
+                || categoryId == condition.getCategoryId())
+                && (Objects.isNull(condition.getIsVip()) || isVip == condition.getIsVip())
+                && (Objects.isNull(condition.getBookStatus())
+                || bookStatus == condition.getBookStatus())
+                && (Objects.isNull(condition.getWordCountMin())
+                || wordCount >= condition.getWordCountMin())
+                && (Objects.isNull(condition.getWordCountMax())
+                || wordCount < condition.getWordCountMax())
+                && lastChapterUpdateTime >= updateTimeMin;
+        }
+
+        private static long toEpochMilli(LocalDateTime time) {
+            return Objects.isNull(time) ? Long.MIN_VALUE
+                : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+    }
+
+    private record PendingDoc(SearchDoc doc, int[] descGrams) {
+
+    }
+
+    private record SearchIndex(SearchDoc[] docs, Postings titlePostings, Postings descPostings) {
+
+    }
+
+    /**
+     * 倒排表：词项按升序保存在一个 int 数组中，二分查找后得到对应的文档位置数组
+     */
+    record Postings(int[] grams, int[][] positions) {
+
+        /**
+         * 同时包含所有词项的文档位置（升序）
+         */
+        int[] intersect(int[] queryGrams) {
+            int[][] lists = new int[queryGrams.length][];
+            for (int i = 0; i < queryGrams.length; i++) {
+                int index = Arrays.binarySearch(grams, queryGrams[i]);
+                if (index < 0) {
+                    return new int[0];
+                }
+                lists[i] = positions[index];
+            }
+            // 从最短的倒排表开始求交集
+            Arrays.sort(lists, Comparator.comparingInt(v -> v.length));
+            int[] result = lists[0];
+            for (int i = 1; i < lists.length && result.length > 0; i++) {
+                result = intersect(result, lists[i]);
+            }
+            return result;
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] result = new int[Math.min(a.length, b.length)];
+            int n = 0;
+            int j = 0;
+            for (int value : a) {
+                // b 通常比 a 长得多，二分查找跳过不可能匹配的部分
+                int index = Arrays.binarySearch(b, j, b.length, value);
+                if (index >= 0) {
+                    result[n++] = value;
+                    j = index + 1;
+                } else {
+                    j = -index - 1;
+                }
+                if (j >= b.length) {
+                    break;
+                }
+            }
+            return Arrays.copyOf(result, n);
+        }
+
+    }
+
+    /**
+     * 倒排表构建器：收集 (词项 << 32 | 文档位置)，排序后切分为每个词项的文档位置数组
+     */
+    static final class PostingsBuilder {
+
+        private long[] entries = new long[1024];
+
+        private int size;
+
+        void add(int[] grams, int position) {
+            if (size + grams.length > entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(entries.length * 2, size + grams.length));
+            }
+            for (int gram : grams) {
+                entries[size++] = (long) gram << 32 | position;
+            }
+        }
+
+        Postings build() {
+            long[] sorted = Arrays.copyOf(entries, size);
+            entries = null;
+            Arrays.parallelSort(sorted);
+            int gramCount = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] >>> 32 != sorted[i - 1] >>> 32) {
+                    gramCount++;
+                }
+            }
+            int[] grams = new int[gramCount];
+            int[][] positions = new int[gramCount][];
+            int start = 0;
+            int n = 0;
+            for (int i = 1; i <= sorted.length; i++) {
+                if (i == sorted.length || sorted[i] >>> 32 != sorted[start] >>> 32) {
+                    grams[n] = (int) (sorted[start] >>> 32);
+                    int[] list = new int[i - start];
+                    for (int k = start; k < i; k++) {
+                        list[k - start] = (int) sorted[k];
+                    }
+                    positions[n++] = list;
+                    start = i;
+                }
+            }
+            return new Postings(grams, positions);
+        }
+
+    }
+
+}
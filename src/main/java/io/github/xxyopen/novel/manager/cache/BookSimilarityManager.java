@@ -0,0 +1,444 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说内容相似度 管理类
+ * <p>
+ * 用小说名、简介、类别和作者生成特征（小说名按 2 个字符、简介按 3 个字符切分），每本小说计算 64 个 MinHash 值作为签名，
+ * 两本小说签名中相同值的比例就是特征集合 Jaccard 相似度的估计值。签名按每 2 个值分为 32 段做局部敏感哈希（LSH），
+ * 只比较至少有一段完全相同的小说，查询相似小说不需要和所有小说逐一比较。
+ * <p>
+ * 启动时在后台线程中全量计算，之后定时增量加入新创建的小说：新小说先保存在待合并表中，查询时逐一比较，数量较多时再合并到索引中。
+ * 新小说加入时和已有小说比较，相似度很高的记录为疑似重复上传。
+ */
+@Component
+@Slf4j
+public class BookSimilarityManager {
+
+    /**
+     * MinHash 签名长度
+     */
+    private static final int NUM_HASHES = 64;
+
+    /**
+     * LSH 分段数，每段 NUM_HASHES / BANDS 个值
+     */
+    private static final int BANDS = 32;
+
+    private static final int ROWS = NUM_HASHES / BANDS;
+
+    /**
+     * 相似小说的最低相似度
+     */
+    private static final double MIN_SIMILARITY = 0.2;
+
+    /**
+     * 疑似重复上传的最低相似度
+     */
+    private static final double DUPLICATE_SIMILARITY = 0.8;
+
+    /**
+     * 待合并表的最大小说数量，超过后合并到索引中
+     */
+    private static final int MAX_PENDING_BOOKS = 1000;
+
+    /**
+     * 参与计算的简介最大长度
+     */
+    private static final int MAX_DESC_LENGTH = 2000;
+
+    /**
+     * 全量计算时每次查询的小说数量
+     */
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    private static final long[] SEEDS = new SplittableRandom(0x5EED_B00CL).longs(NUM_HASHES)
+        .toArray();
+
+    private final BookInfoMapper bookInfoMapper;
+
+    private final boolean enabled;
+
+    /**
+     * 增量同步新小说的间隔（毫秒）
+     */
+    private final long syncInterval;
+
+    private final ScheduledExecutorService executor;
+
+    private volatile SimilarityIndex index = SimilarityIndex.build(Collections.emptyMap());
+
+    /**
+     * 待合并的小说签名，查询时覆盖索引中的同一本小说
+     */
+    private final Map<Long, int[]> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 上次同步的时间，只在后台线程中访问
+     */
+    private LocalDateTime lastSyncTime;
+
+    public BookSimilarityManager(BookInfoMapper bookInfoMapper,
+        @Value("${novel.similarity.enabled:true}") boolean enabled,
+        @Value("${novel.similarity.sync-interval:60000}") long syncInterval) {
+        this.bookInfoMapper = bookInfoMapper;
+        this.enabled = enabled;
+        this.syncInterval = syncInterval;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("book-similarity-");
+        threadFactory.setDaemon(true);
+        threadFactory.setThreadPriority(Thread.MIN_PRIORITY);
+        this.executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            executor.execute(this::rebuild);
+            executor.scheduleWithFixedDelay(this::sync, syncInterval, syncInterval,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 查询内容相似的小说ID
+     *
+     * @param bookId 小说ID
+     * @param count  最大数量
+     * @return 按相似度降序排列的小说ID，小说还没有加入索引时返回空列表
+     */
+    public List<Long> listSimilarBookIds(Long bookId, int count) {
+        int[] signature = pending.get(bookId);
+        if (Objects.isNull(signature)) {
+            signature = index.getSignature(bookId);
+        }
+        if (Objects.isNull(signature)) {
+            return Collections.emptyList();
+        }
+        return search(signature, bookId, MIN_SIMILARITY, count);
+    }
+
+    /**
+     * 全量计算所有小说的签名并重建索引
+     */
+    private void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime syncTime = LocalDateTime.now();
+            Map<Long, int[]> signatures = new HashMap<>();
+            long lastId = 0;
+            while (true) {
+                QueryWrapper<BookInfo> queryWrapper = featureQueryWrapper()
+                    .gt(DatabaseConsts.CommonColumnEnum.ID.getName(), lastId)
+                    .orderByAsc(DatabaseConsts.CommonColumnEnum.ID.getName())
+                    .last(DatabaseConsts.SqlEnum.LIMIT_1000.getSql());
+                List<BookInfo> bookInfos = bookInfoMapper.selectList(queryWrapper);
+                for (BookInfo bookInfo : bookInfos) {
+                    int[] signature = signature(bookInfo);
+                    if (Objects.nonNull(signature)) {
+                        signatures.put(bookInfo.getId(), signature);
+                    }
+                }
+                if (bookInfos.size() < SCAN_BATCH_SIZE) {
+                    break;
+                }
+                lastId = bookInfos.get(bookInfos.size() - 1).getId();
+            }
+            index = SimilarityIndex.build(signatures);
+            lastSyncTime = syncTime;
+            log.info("小说相似度索引计算完成，小说数：{}，耗时：{}ms", signatures.size(),
+                System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("小说相似度索引计算失败：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 增量加入新创建的小说
+     */
+    private void sync() {
+        if (Objects.isNull(lastSyncTime)) {
+            // 全量计算还没有成功，重新计算
+            rebuild();
+            return;
+        }
+        try {
+            LocalDateTime syncTime = LocalDateTime.now();
+            // 多查一分钟，避免各节点时钟误差漏掉小说，重复的小说直接覆盖
+            QueryWrapper<BookInfo> queryWrapper = featureQueryWrapper()
+                .ge(DatabaseConsts.CommonColumnEnum.CREATE_TIME.getName(),
+                    lastSyncTime.minusMinutes(1));
+            for (BookInfo bookInfo : bookInfoMapper.selectList(queryWrapper)) {
+                int[] signature = signature(bookInfo);
+                if (Objects.isNull(signature)) {
+                    continue;
+                }
+                if (!pending.containsKey(bookInfo.getId())
+                    && Objects.isNull(index.getSignature(bookInfo.getId()))) {
+                    List<Long> duplicateIds = search(signature, bookInfo.getId(),
+                        DUPLICATE_SIMILARITY, 10);
+                    if (!duplicateIds.isEmpty()) {
+                        log.warn("疑似重复上传的小说：{}（{}），相似小说ID：{}", bookInfo.getBookName(),
+                            bookInfo.getId(), duplicateIds);
+                    }
+                }
+                pending.put(bookInfo.getId(), signature);
+            }
+            lastSyncTime = syncTime;
+            if (pending.size() > MAX_PENDING_BOOKS) {
+                merge();
+            }
+        } catch (Exception e) {
+            log.error("小说相似度索引同步失败：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 把待合并的小说合并到索引中
+     */
+    private void merge() {
+        Map<Long, int[]> merged = new HashMap<>(pending);
+        Map<Long, int[]> signatures = index.toMap();
+        signatures.putAll(merged);
+        index = SimilarityIndex.build(signatures);
+        merged.forEach(pending::remove);
+    }
+
+    private List<Long> search(int[] signature, Long excludeId, double minSimilarity,
+        int count) {
+        Map<Long, Double> similarities = new HashMap<>();
+        SimilarityIndex current = index;
+        for (int position : current.candidates(signature)) {
+            long bookId = current.bookIds[position];
+            if (!Objects.equals(bookId, excludeId) && !pending.containsKey(bookId)) {
+                double similarity = similarity(signature, current.signatures,
+                    position * NUM_HASHES);
+                if (similarity >= minSimilarity) {
+                    similarities.put(bookId, similarity);
+                }
+            }
+        }
+        pending.forEach((bookId, other) -> {
+            if (!Objects.equals(bookId, excludeId)) {
+                double similarity = similarity(signature, other, 0);
+                if (similarity >= minSimilarity) {
+                    similarities.put(bookId, similarity);
+                }
+            }
+        });
+        return similarities.entrySet().stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+            .limit(count)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    private static QueryWrapper<BookInfo> featureQueryWrapper() {
+        QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName(),
+            DatabaseConsts.BookTable.COLUMN_BOOK_NAME, DatabaseConsts.BookTable.COLUMN_BOOK_DESC,
+            DatabaseConsts.BookTable.COLUMN_CATEGORY_ID,
+            DatabaseConsts.BookTable.COLUMN_AUTHOR_NAME);
+        return queryWrapper;
+    }
+
+    /**
+     * 计算小说的 MinHash 签名，没有任何特征时返回 null
+     */
+    static int[] signature(BookInfo bookInfo) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        boolean[] hasFeature = new boolean[1];
+        LongConsumer consumer = feature -> {
+            hasFeature[0] = true;
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int value = (int) mix(feature ^ SEEDS[i]);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        };
+        shingles('n', bookInfo.getBookName(), 2, consumer);
+        String bookDesc = bookInfo.getBookDesc();
+        if (Objects.nonNull(bookDesc) && bookDesc.length() > MAX_DESC_LENGTH) {
+            bookDesc = bookDesc.substring(0, MAX_DESC_LENGTH);
+        }
+        shingles('d', bookDesc, 3, consumer);
+        if (Objects.nonNull(bookInfo.getCategoryId())) {
+            consumer.accept(hash('c', String.valueOf(bookInfo.getCategoryId())));
+        }
+        if (Objects.nonNull(bookInfo.getAuthorName())) {
+            consumer.accept(hash('a', bookInfo.getAuthorName()));
+        }
+        return hasFeature[0] ? signature : null;
+    }
+
+    /**
+     * 去掉空白和标点后按固定长度切分文本，文本长度不足时整体作为一个特征
+     */
+    private static void shingles(char tag, String text, int length, LongConsumer consumer) {
+        if (Objects.isNull(text)) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        text.codePoints().filter(Character::isLetterOrDigit)
+            .forEach(v -> sb.appendCodePoint(Character.toLowerCase(v)));
+        String normalized = sb.toString();
+        if (normalized.isEmpty()) {
+            return;
+        }
+        if (normalized.length() <= length) {
+            consumer.accept(hash(tag, normalized));
+            return;
+        }
+        for (int i = 0; i + length <= normalized.length(); i++) {
+            consumer.accept(hash(tag, normalized.substring(i, i + length)));
+        }
+    }
+
+    /**
+     * 特征的 64 位哈希（FNV-1a）
+     */
+    private static long hash(char tag, String feature) {
+        long h = 0xcbf29ce484222325L;
+        h = (h ^ tag) * 0x100000001b3L;
+        for (int i = 0; i < feature.length(); i++) {
+            h = (h ^ feature.charAt(i)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    private static double similarity(int[] signature, int[] other, int offset) {
+        int same = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (signature[i] == other[offset + i]) {
+                same++;
+            }
+        }
+        return (double) same / NUM_HASHES;
+    }
+
+    /**
+     * 签名某一段的 40 位哈希
+     */
+    private static long bandKey(int[] signature, int offset, int band) {
+        long h = band + 1L;
+        for (int i = 0; i < ROWS; i++) {
+            h = mix(h * 31 + signature[offset + band * ROWS + i]);
+        }
+        return h >>> 24;
+    }
+
+    /**
+     * 不可变的 LSH 索引
+     * <p>
+     * 小说ID按升序保存，签名按相同顺序连续保存在一个数组中；每一段的索引是 (段哈希 << 24 | 小说位置) 的有序数组，
+     * 查询时二分查找，所有数据都是基本类型数组。小说位置占 24 位，最多支持约 1600 万本小说。
+     */
+    static final class SimilarityIndex {
+
+        private final long[] bookIds;
+
+        private final int[] signatures;
+
+        private final long[][] bands;
+
+        private SimilarityIndex(long[] bookIds, int[] signatures, long[][] bands) {
+            this.bookIds = bookIds;
+            this.signatures = signatures;
+            this.bands = bands;
+        }
+
+        static SimilarityIndex build(Map<Long, int[]> signatureMap) {
+            long[] bookIds = signatureMap.keySet().stream().mapToLong(Long::longValue).sorted()
+                .toArray();
+            int[] signatures = new int[bookIds.length * NUM_HASHES];
+            for (int i = 0; i < bookIds.length; i++) {
+                System.arraycopy(signatureMap.get(bookIds[i]), 0, signatures, i * NUM_HASHES,
+                    NUM_HASHES);
+            }
+            long[][] bands = new long[BANDS][bookIds.length];
+            for (int band = 0; band < BANDS; band++) {
+                for (int i = 0; i < bookIds.length; i++) {
+                    bands[band][i] = bandKey(signatures, i * NUM_HASHES, band) << 24 | i;
+                }
+                Arrays.sort(bands[band]);
+            }
+            return new SimilarityIndex(bookIds, signatures, bands);
+        }
+
+        int[] getSignature(long bookId) {
+            int position = Arrays.binarySearch(bookIds, bookId);
+            if (position < 0) {
+                return null;
+            }
+            return Arrays.copyOfRange(signatures, position * NUM_HASHES,
+                (position + 1) * NUM_HASHES);
+        }
+
+        /**
+         * 至少有一段签名相同的小说位置
+         */
+        Set<Integer> candidates(int[] signature) {
+            Set<Integer> positions = new HashSet<>();
+            for (int band = 0; band < BANDS; band++) {
+                long key = bandKey(signature, 0, band);
+                long[] entries = bands[band];
+                int i = Arrays.binarySearch(entries, key << 24);
+                if (i < 0) {
+                    i = -i - 1;
+                }
+                for (; i < entries.length && entries[i] >>> 24 == key; i++) {
+                    positions.add((int) (entries[i] & 0xFFFFFF));
+                }
+            }
+            return positions;
+        }
+
+        Map<Long, int[]> toMap() {
+            Map<Long, int[]> signatureMap = new HashMap<>(bookIds.length * 2);
+            for (int i = 0; i < bookIds.length; i++) {
+                signatureMap.put(bookIds[i], Arrays.copyOfRange(signatures, i * NUM_HASHES,
+                    (i + 1) * NUM_HASHES));
+            }
+            return signatureMap;
+        }
+
+    }
+
+}
@@ -0,0 +1,181 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 缓存预热
+ * <p>
+ * 在应用启动完成之前（ApplicationRunner 执行完之后实例才会变为就绪状态）并行加载首页、分类、榜单和热门小说的缓存，
+ * 避免新实例上线后大量请求同时穿透到数据库。超过预热时间后放弃剩余任务，不阻塞启动。
+ */
+@Component
+@Slf4j
+public class CacheWarmUpRunner implements ApplicationRunner {
+
+    /**
+     * 作品方向 0-男频 1-女频
+     */
+    private static final int[] WORK_DIRECTIONS = {0, 1};
+
+    private final BookCategoryCacheManager bookCategoryCacheManager;
+
+    private final HomeBookCacheManager homeBookCacheManager;
+
+    private final FriendLinkCacheManager friendLinkCacheManager;
+
+    private final BookRankCacheManager bookRankCacheManager;
+
+    private final BookInfoCacheManager bookInfoCacheManager;
+
+    private final BookChapterCacheManager bookChapterCacheManager;
+
+    private final BookContentCacheManager bookContentCacheManager;
+
+    private final BookInfoMapper bookInfoMapper;
+
+    private final boolean enabled;
+
+    private final int concurrency;
+
+    private final long timeout;
+
+    private final int topBooks;
+
+    public CacheWarmUpRunner(BookCategoryCacheManager bookCategoryCacheManager,
+        HomeBookCacheManager homeBookCacheManager, FriendLinkCacheManager friendLinkCacheManager,
+        BookRankCacheManager bookRankCacheManager, BookInfoCacheManager bookInfoCacheManager,
+        BookChapterCacheManager bookChapterCacheManager,
+        BookContentCacheManager bookContentCacheManager, BookInfoMapper bookInfoMapper,
+        @Value("${novel.cache.warm-up.enabled:true}") boolean enabled,
+        @Value("${novel.cache.warm-up.concurrency:4}") int concurrency,
+        @Value("${novel.cache.warm-up.timeout:30}") long timeout,
+        @Value("${novel.cache.warm-up.top-books:100}") int topBooks) {
+        this.bookCategoryCacheManager = bookCategoryCacheManager;
+        this.homeBookCacheManager = homeBookCacheManager;
+        this.friendLinkCacheManager = friendLinkCacheManager;
+        this.bookRankCacheManager = bookRankCacheManager;
+        this.bookInfoCacheManager = bookInfoCacheManager;
+        this.bookChapterCacheManager = bookChapterCacheManager;
+        this.bookContentCacheManager = bookContentCacheManager;
+        this.bookInfoMapper = bookInfoMapper;
+        this.enabled = enabled;
+        this.concurrency = concurrency;
+        this.timeout = timeout;
+        this.topBooks = topBooks;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency,
+            new CustomizableThreadFactory("cache-warm-up-"));
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            // 先预热数据量小、访问量大的首页缓存，再预热热门小说
+            warmUpTasks().forEach((cache, tasks) -> tasks.forEach(
+                task -> futures.add(CompletableFuture.runAsync(() -> run(cache, task), executor))));
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .get(timeout, TimeUnit.SECONDS);
+            log.info("缓存预热完成，任务数：{}，耗时：{}ms", futures.size(),
+                System.currentTimeMillis() - start);
+        } catch (TimeoutException e) {
+            log.warn("缓存预热超时（{}s），放弃剩余任务", timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("缓存预热失败", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 按缓存配置分组的预热任务
+     */
+    private Map<CacheConsts.CacheEnum, List<Runnable>> warmUpTasks() {
+        Map<CacheConsts.CacheEnum, List<Runnable>> tasks = new EnumMap<>(
+            CacheConsts.CacheEnum.class);
+        for (int workDirection : WORK_DIRECTIONS) {
+            add(tasks, CacheConsts.CacheEnum.BOOK_CATEGORY_LIST_CACHE,
+                () -> bookCategoryCacheManager.listCategory(workDirection));
+        }
+        add(tasks, CacheConsts.CacheEnum.HOME_BOOK_CACHE, homeBookCacheManager::listHomeBooks);
+        add(tasks, CacheConsts.CacheEnum.HOME_FRIEND_LINK_CACHE,
+            friendLinkCacheManager::listFriendLinks);
+        add(tasks, CacheConsts.CacheEnum.BOOK_VISIT_RANK_CACHE,
+            bookRankCacheManager::listVisitRankBooks);
+        add(tasks, CacheConsts.CacheEnum.BOOK_NEWEST_RANK_CACHE,
+            bookRankCacheManager::listNewestRankBooks);
+        add(tasks, CacheConsts.CacheEnum.BOOK_UPDATE_RANK_CACHE,
+            bookRankCacheManager::listUpdateRankBooks);
+        // 点击量最高的小说，同时预热首章和最新章节
+        for (Long bookId : listTopBookIds()) {
+            add(tasks, CacheConsts.CacheEnum.BOOK_INFO_CACHE, () -> {
+                BookInfoRespDto bookInfo = bookInfoCacheManager.getBookInfo(bookId);
+                if (Objects.nonNull(bookInfo.getFirstChapterId())) {
+                    bookChapterCacheManager.getChapter(bookInfo.getFirstChapterId());
+                    bookContentCacheManager.getBookContent(bookInfo.getFirstChapterId());
+                }
+                if (Objects.nonNull(bookInfo.getLastChapterId())
+                    && bookInfo.getLastChapterId() > 0) {
+                    bookChapterCacheManager.getChapter(bookInfo.getLastChapterId());
+                }
+            });
+        }
+        return tasks;
+    }
+
+    private List<Long> listTopBookIds() {
+        if (topBooks <= 0) {
+            return List.of();
+        }
+        QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName())
+            .gt(DatabaseConsts.BookTable.COLUMN_WORD_COUNT, 0)
+            .orderByDesc(DatabaseConsts.BookTable.COLUMN_VISIT_COUNT);
+        // 只查询第一页，不查询总数
+        return bookInfoMapper.selectPage(new Page<>(1, topBooks, false), queryWrapper)
+            .getRecords().stream().map(BookInfo::getId).toList();
+    }
+
+    private static void add(Map<CacheConsts.CacheEnum, List<Runnable>> tasks,
+        CacheConsts.CacheEnum cache, Runnable task) {
+        tasks.computeIfAbsent(cache, k -> new ArrayList<>()).add(task);
+    }
+
+    private static void run(CacheConsts.CacheEnum cache, Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            // 单个任务失败不影响其它任务，对应的缓存在第一次访问时再加载
+            log.warn("缓存预热任务失败：{}，{}", cache.getName(), e.getMessage());
+        }
+    }
+
+}
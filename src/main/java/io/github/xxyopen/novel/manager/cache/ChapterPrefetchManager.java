@@ -0,0 +1,101 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.xxyopen.novel.dto.resp.BookChapterRespDto;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 章节预取
+ * <p>
+ * 读者打开一个章节后很可能马上翻到下一章，所以返回当前章节后在后台把下一章的章节信息和内容加载到缓存中。
+ * 预取使用线程数和队列都有界的低优先级线程池，队列满时直接放弃（系统繁忙时不预取）；同一章节在一段时间内只预取一次。
+ */
+@Component
+@Slf4j
+public class ChapterPrefetchManager {
+
+    private final BookChapterCacheManager bookChapterCacheManager;
+
+    private final BookContentCacheManager bookContentCacheManager;
+
+    private final boolean enabled;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 最近已经提交过预取任务的章节ID
+     */
+    private final Cache<Long, Boolean> recentlyPrefetched;
+
+    public ChapterPrefetchManager(BookChapterCacheManager bookChapterCacheManager,
+        BookContentCacheManager bookContentCacheManager,
+        @Value("${novel.cache.prefetch.enabled:true}") boolean enabled,
+        @Value("${novel.cache.prefetch.threads:2}") int threads,
+        @Value("${novel.cache.prefetch.queue-size:100}") int queueSize,
+        @Value("${novel.cache.prefetch.dedup-ttl:60}") long dedupTtl) {
+        this.bookChapterCacheManager = bookChapterCacheManager;
+        this.bookContentCacheManager = bookContentCacheManager;
+        this.enabled = enabled;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+            "chapter-prefetch-");
+        threadFactory.setDaemon(true);
+        threadFactory.setThreadPriority(Thread.MIN_PRIORITY);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize), threadFactory);
+        this.recentlyPrefetched = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Duration.ofSeconds(dedupTtl))
+            .build();
+    }
+
+    /**
+     * 预取下一章
+     *
+     * @param chapter 当前章节
+     */
+    public void prefetchNext(BookChapterRespDto chapter) {
+        if (!enabled || Objects.isNull(chapter)
+            || recentlyPrefetched.asMap().putIfAbsent(chapter.getId(), Boolean.TRUE) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> prefetch(chapter));
+        } catch (RejectedExecutionException e) {
+            // 队列已满，本次不预取，之后允许再次尝试
+            recentlyPrefetched.invalidate(chapter.getId());
+        }
+    }
+
+    private void prefetch(BookChapterRespDto chapter) {
+        try {
+            Long nextChapterId = bookChapterCacheManager.getChapterDirectory(chapter.getBookId())
+                .getNextId(chapter.getId(), chapter.getChapterNum());
+            if (Objects.isNull(nextChapterId)) {
+                return;
+            }
+            // 通过缓存管理类加载，缓存已存在时不会查询数据库
+            bookChapterCacheManager.getChapter(nextChapterId);
+            bookContentCacheManager.getBookContent(nextChapterId);
+        } catch (Exception e) {
+            // 预取失败不影响正常阅读，下次访问时再加载
+            log.debug("章节预取失败：{}", chapter.getId(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
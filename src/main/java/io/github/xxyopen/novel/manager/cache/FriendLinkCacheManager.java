@@ -26,8 +26,8 @@ public class FriendLinkCacheManager {
     /**
      * 友情链接列表查询，并放入缓存中
      */
-    @Cacheable(cacheManager = CacheConsts.REDIS_CACHE_MANAGER,
-        value = CacheConsts.HOME_FRIEND_LINK_CACHE_NAME)
+    @Cacheable(cacheManager = CacheConsts.TWO_LEVEL_CACHE_MANAGER,
+        value = CacheConsts.HOME_FRIEND_LINK_CACHE_NAME, sync = true)
     public List<HomeFriendLinkRespDto> listFriendLinks() {
         // 从友情链接表中查询出友情链接列表
         QueryWrapper<HomeFriendLink> queryWrapper = new QueryWrapper<>();
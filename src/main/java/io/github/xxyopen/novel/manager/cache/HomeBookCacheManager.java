@@ -3,16 +3,13 @@ package io.github.xxyopen.novel.manager.cache;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import io.github.xxyopen.novel.core.constant.CacheConsts;
 import io.github.xxyopen.novel.core.constant.DatabaseConsts;
-import io.github.xxyopen.novel.dao.entity.BookInfo;
 import io.github.xxyopen.novel.dao.entity.HomeBook;
-import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
 import io.github.xxyopen.novel.dao.mapper.HomeBookMapper;
+import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
 import io.github.xxyopen.novel.dto.resp.HomeBookRespDto;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
@@ -39,7 +36,7 @@ import org.springframework.util.CollectionUtils;
  * 当标记了@RequiredArgsConstructor的类中存在其他带参数的构造方法时，该注解不会生成构造方法。
  * HomeBookCacheManager类标记了@RequiredArgsConstructor注解，意味着该类的构造方法会自动生成，
  * 并且会包含final或者标记了@NonNull的成员变量作为参数。
- * HomeBookMapper和BookInfoMapper成员变量会被自动注入到构造方法中，
+ * HomeBookMapper和BookInfoCacheManager成员变量会被自动注入到构造方法中，
  * 以便在使用HomeBookCacheManager类时可以直接使用这两个依赖的实例对象。
  */
 @RequiredArgsConstructor
@@ -47,7 +44,7 @@ public class HomeBookCacheManager {
 
     private final HomeBookMapper homeBookMapper;
 
-    private final BookInfoMapper bookInfoMapper;
+    private final BookInfoCacheManager bookInfoCacheManager;
 
     /**
      * 查询首页小说推荐，并放入缓存中
@@ -56,7 +53,7 @@ public class HomeBookCacheManager {
     //实现缓存
     //指定了缓存管理器为CacheConsts.CAFFEINE_CACHE_MANAGER，缓存名称为CacheConsts.HOME_BOOK_CACHE_NAME
     @Cacheable(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
-        value = CacheConsts.HOME_BOOK_CACHE_NAME)
+        value = CacheConsts.HOME_BOOK_CACHE_NAME, sync = true)
     /**
      * 当调用listHomeBooks()方法时，会首先查找缓存中是否存在对应的结果，
      * 如果存在，则直接返回缓存中的结果；如果不存在，则执行方法体内的代码逻辑，并将返回结果放入缓存中。
@@ -86,34 +83,24 @@ public class HomeBookCacheManager {
                 .map(HomeBook::getBookId)
                 .toList();
 
-            // 根据小说ID列表查询相关的小说信息列表
-            QueryWrapper<BookInfo> bookInfoQueryWrapper = new QueryWrapper<>();
-            bookInfoQueryWrapper.in(DatabaseConsts.CommonColumnEnum.ID.getName(), bookIds);
-            List<BookInfo> bookInfos = bookInfoMapper.selectList(bookInfoQueryWrapper);
+            // 根据小说ID列表从小说信息缓存中批量查询相关的小说信息，未命中的小说一次性从数据库加载
+            Map<Long, BookInfoRespDto> bookInfoMap = bookInfoCacheManager.getBookInfos(bookIds);
 
-            // 组装 HomeBookRespDto 列表数据并返回
-            if (!CollectionUtils.isEmpty(bookInfos)) {
-                /**
-                 * 调用bookInfos.stream()将bookInfos列表转换为一个Stream流。
-                 * 调用collect(Collectors.toMap(BookInfo::getId, Function.identity()))，对流中的每个BookInfo对象进行处理。
-                 * toMap方法接受两个参数：第一个参数BookInfo::getId表示使用BookInfo对象的id属性作为Map的键；
-                 * 第二个参数Function.identity()表示将BookInfo对象本身作为Map的值。
-                 * 最终得到的结果是一个Map<Long, BookInfo>对象bookInfoMap，其中以BookInfo对象的id作为键，对应的BookInfo对象作为值。
-                 */
-                Map<Long, BookInfo> bookInfoMap = bookInfos.stream()
-                    .collect(Collectors.toMap(BookInfo::getId, Function.identity()));
-
-                return homeBooks.stream().map(v -> {
-                    BookInfo bookInfo = bookInfoMap.get(v.getBookId());
-                    HomeBookRespDto bookRespDto = new HomeBookRespDto();
-                    bookRespDto.setType(v.getType());
-                    bookRespDto.setBookId(v.getBookId());
-                    bookRespDto.setBookName(bookInfo.getBookName());
-                    bookRespDto.setPicUrl(bookInfo.getPicUrl());
-                    bookRespDto.setAuthorName(bookInfo.getAuthorName());
-                    bookRespDto.setBookDesc(bookInfo.getBookDesc());
-                    return bookRespDto;
-                }).toList();
+            // 组装 HomeBookRespDto 列表数据并返回（跳过已经不存在的小说）
+            if (!CollectionUtils.isEmpty(bookInfoMap)) {
+                return homeBooks.stream()
+                    .filter(v -> bookInfoMap.containsKey(v.getBookId()))
+                    .map(v -> {
+                        BookInfoRespDto bookInfo = bookInfoMap.get(v.getBookId());
+                        HomeBookRespDto bookRespDto = new HomeBookRespDto();
+                        bookRespDto.setType(v.getType());
+                        bookRespDto.setBookId(v.getBookId());
+                        bookRespDto.setBookName(bookInfo.getBookName());
+                        bookRespDto.setPicUrl(bookInfo.getPicUrl());
+                        bookRespDto.setAuthorName(bookInfo.getAuthorName());
+                        bookRespDto.setBookDesc(bookInfo.getBookDesc());
+                        return bookRespDto;
+                    }).toList();
 
             }
 
@@ -24,8 +24,8 @@ public class UserInfoCacheManager {
     /**
      * 查询用户信息，并放入缓存中
      */
-    @Cacheable(cacheManager = CacheConsts.REDIS_CACHE_MANAGER,
-        value = CacheConsts.USER_INFO_CACHE_NAME)
+    @Cacheable(cacheManager = CacheConsts.TWO_LEVEL_CACHE_MANAGER,
+        value = CacheConsts.USER_INFO_CACHE_NAME, sync = true)
     public UserInfoDto getUser(Long userId) {
         UserInfo userInfo = userInfoMapper.selectById(userId);
         if (Objects.isNull(userInfo)) {
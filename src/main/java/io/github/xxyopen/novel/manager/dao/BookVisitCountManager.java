@@ -0,0 +1,117 @@
+package io.github.xxyopen.novel.manager.dao;
+
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import io.github.xxyopen.novel.manager.redis.BookVisitRankManager;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说点击量 DAO管理类
+ * <p>
+ * 点击量先在内存中按小说ID累加，定时合并成批量 UPDATE 写入数据库，热门小说不再每次点击都锁一次同一行。
+ * 应用正常关闭时写入剩余的点击量；异常退出时最多丢失一个写入周期内的点击量。
+ */
+@Component
+@Slf4j
+public class BookVisitCountManager {
+
+    /**
+     * 每条 UPDATE 语句包含的最大小说数量
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private final BookInfoMapper bookInfoMapper;
+
+    private final BookVisitRankManager bookVisitRankManager;
+
+    /**
+     * 内存中最多累加的小说数量，超过后直接写入数据库
+     */
+    private final int maxPendingBooks;
+
+    /**
+     * 待写入的点击量，累加和取出都是针对单个 key 的原子操作，写入期间的点击不会丢失
+     */
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    public BookVisitCountManager(BookInfoMapper bookInfoMapper,
+        BookVisitRankManager bookVisitRankManager,
+        @Value("${novel.visit-count.max-pending-books:100000}") int maxPendingBooks) {
+        this.bookInfoMapper = bookInfoMapper;
+        this.bookVisitRankManager = bookVisitRankManager;
+        this.maxPendingBooks = maxPendingBooks;
+    }
+
+    /**
+     * 增加小说点击量（异步写入数据库），调用方需要先校验小说ID
+     */
+    public void addVisitCount(Long bookId) {
+        if (pending.size() >= maxPendingBooks && !pending.containsKey(bookId)) {
+            bookInfoMapper.addVisitCount(bookId);
+            bookVisitRankManager.incrementScores(Map.of(bookId, 1L));
+            return;
+        }
+        pending.merge(bookId, 1L, Long::sum);
+    }
+
+    /**
+     * 把累加的点击量批量写入数据库
+     */
+    @Scheduled(fixedDelayString = "${novel.visit-count.flush-interval:5000}")
+    public synchronized void flush() {
+        Map<Long, Long> visitCounts = new HashMap<>();
+        for (Long bookId : pending.keySet()) {
+            // 取出后的新点击重新累加到新的 key 上，下个周期写入
+            Long count = pending.remove(bookId);
+            if (count != null) {
+                visitCounts.put(bookId, count);
+            }
+        }
+        if (visitCounts.isEmpty()) {
+            return;
+        }
+        for (Map<Long, Long> batch : partition(visitCounts)) {
+            try {
+                bookInfoMapper.addVisitCounts(batch);
+            } catch (Exception e) {
+                // 写入失败时放回内存，下个周期重试
+                log.error("小说点击量写入失败，下个周期重试：{}", e.getMessage(), e);
+                batch.forEach((bookId, count) -> pending.merge(bookId, count, Long::sum));
+                continue;
+            }
+            // 写入数据库成功后同步累加到点击榜
+            bookVisitRankManager.incrementScores(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static List<Map<Long, Long>> partition(Map<Long, Long> visitCounts) {
+        List<Map<Long, Long>> batches = new ArrayList<>();
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        for (Map.Entry<Long, Long> entry : visitCounts.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() == BATCH_SIZE) {
+                batches.add(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+}
@@ -4,6 +4,7 @@ import io.github.xxyopen.novel.core.constant.AmqpConsts;
 import lombok.RequiredArgsConstructor;
 import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
@@ -20,13 +21,16 @@ public class AmqpMsgManager {
 
     private final AmqpTemplate amqpTemplate;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Value("${spring.amqp.enabled:false}")
     private boolean amqpEnabled;
 
     /**
-     * 发送小说信息改变消息
+     * 发送小说信息改变消息（同时发布本地的小说信息改变事件）
      */
     public void sendBookChangeMsg(Long bookId) {
+        eventPublisher.publishEvent(new BookChangeEvent(bookId));
         if (amqpEnabled) {
             sendAmqpMessage(amqpTemplate, AmqpConsts.BookChangeMq.EXCHANGE_NAME, null, bookId);
         }
@@ -0,0 +1,10 @@
+package io.github.xxyopen.novel.manager.mq;
+
+/**
+ * 小说信息改变事件（本地事件，只在当前节点内传递）
+ *
+ * @param bookId 小说ID
+ */
+public record BookChangeEvent(Long bookId) {
+
+}
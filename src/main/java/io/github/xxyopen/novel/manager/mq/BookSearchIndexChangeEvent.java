@@ -0,0 +1,8 @@
+package io.github.xxyopen.novel.manager.mq;
+
+/**
+ * 小说搜索索引改变事件（本地事件，只在当前节点内传递），本地搜索索引加入、重新加载小说或全量重建后发布
+ */
+public record BookSearchIndexChangeEvent() {
+
+}
@@ -0,0 +1,326 @@
+package io.github.xxyopen.novel.manager.redis;
+
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说热度榜 管理类
+ * <p>
+ * 每本小说的热度分数按指数衰减：点击、阅读、评论按不同权重累加到分数上，分数每经过一个半衰期减半，最近的行为比很久以前的行为影响更大。
+ * 行为先在内存中按小说ID累加，定时统一衰减并合并到分数表中；分数表使用基本类型数组实现的开放寻址哈希表，不产生装箱对象，
+ * 分数衰减到阈值以下的小说直接移除。
+ * <p>
+ * 分数表定时保存到 Redis 中，应用重启时读取并按间隔时间衰减后继续使用。热度只统计本节点收到的请求，多个节点负载均衡时各节点的排名基本一致。
+ */
+@Component
+@Slf4j
+public class BookTrendingManager {
+
+    /**
+     * 保存的排名数量
+     */
+    private static final int TOP_COUNT = 100;
+
+    /**
+     * 最低分数，衰减到该分数以下的小说从分数表中移除
+     */
+    private static final double MIN_SCORE = 0.01;
+
+    /**
+     * 快照中保存时间的字段
+     */
+    private static final String SNAPSHOT_TIME_FIELD = "time";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 半衰期（毫秒）
+     */
+    private final double halfLifeMillis;
+
+    /**
+     * 内存中最多暂存的小说数量，超过后丢弃新的小说直到下次合并
+     */
+    private final int maxPendingBooks;
+
+    /**
+     * 待合并的行为分数，累加和取出都是针对单个 key 的原子操作，合并期间的行为不会丢失
+     */
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 分数表，合并时整体替换，发布后不再修改
+     */
+    private volatile ScoreMap scores = new ScoreMap(0);
+
+    /**
+     * 按热度降序排列的小说ID
+     */
+    private volatile long[] topBookIds = new long[0];
+
+    /**
+     * 分数表最后一次衰减的时间
+     */
+    private long lastDecayTime = System.currentTimeMillis();
+
+    public BookTrendingManager(StringRedisTemplate stringRedisTemplate,
+        @Value("${novel.trending.half-life:360}") long halfLifeMinutes,
+        @Value("${novel.trending.max-pending-books:100000}") int maxPendingBooks) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.halfLifeMillis = halfLifeMinutes * 60 * 1000.0;
+        this.maxPendingBooks = maxPendingBooks;
+    }
+
+    /**
+     * 记录小说相关的行为
+     *
+     * @param bookId 小说ID（调用方需要先校验小说ID）
+     * @param event  行为类型
+     */
+    public void addEvent(Long bookId, EventEnum event) {
+        if (pending.size() >= maxPendingBooks && !pending.containsKey(bookId)) {
+            return;
+        }
+        pending.merge(bookId, (long) event.weight, Long::sum);
+    }
+
+    /**
+     * 查询热度最高的小说ID列表
+     *
+     * @param count 数量
+     * @return 按热度降序排列的小说ID列表
+     */
+    public List<Long> listTopBookIds(int count) {
+        long[] bookIds = topBookIds;
+        int size = Math.min(count, bookIds.length);
+        List<Long> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(bookIds[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 衰减分数表并合并新的行为分数
+     */
+    @Scheduled(fixedDelayString = "${novel.trending.decay-interval:10000}")
+    public synchronized void decay() {
+        long now = System.currentTimeMillis();
+        ScoreMap current = scores;
+        ScoreMap next = new ScoreMap(current.size + pending.size());
+        current.decayInto(next, decayFactor(now - lastDecayTime));
+        for (Long bookId : pending.keySet()) {
+            Long score = pending.remove(bookId);
+            if (score != null) {
+                next.add(bookId, score);
+            }
+        }
+        lastDecayTime = now;
+        scores = next;
+        topBookIds = next.top(TOP_COUNT);
+    }
+
+    /**
+     * 保存分数表快照
+     */
+    @Scheduled(fixedDelayString = "${novel.trending.snapshot-interval:60000}")
+    public void snapshot() {
+        ScoreMap current = scores;
+        if (current.size == 0) {
+            return;
+        }
+        Map<String, String> snapshot = new HashMap<>(current.size * 2);
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != 0) {
+                snapshot.put(String.valueOf(current.keys[i]), String.valueOf(current.values[i]));
+            }
+        }
+        snapshot.put(SNAPSHOT_TIME_FIELD, String.valueOf(System.currentTimeMillis()));
+        try {
+            // 先写入临时 key 再替换，避免读取到写了一半的快照
+            String tmpKey = CacheConsts.BOOK_TRENDING_KEY + "::tmp";
+            stringRedisTemplate.delete(tmpKey);
+            stringRedisTemplate.opsForHash().putAll(tmpKey, snapshot);
+            stringRedisTemplate.rename(tmpKey, CacheConsts.BOOK_TRENDING_KEY);
+        } catch (Exception e) {
+            log.error("小说热度榜快照保存失败：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 启动时从快照恢复分数表
+     */
+    @PostConstruct
+    public synchronized void restore() {
+        Map<Object, Object> snapshot;
+        try {
+            snapshot = stringRedisTemplate.opsForHash().entries(CacheConsts.BOOK_TRENDING_KEY);
+        } catch (Exception e) {
+            log.warn("小说热度榜快照读取失败，从空榜单开始：{}", e.getMessage());
+            return;
+        }
+        Object time = snapshot.remove(SNAPSHOT_TIME_FIELD);
+        if (time == null || snapshot.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        double factor = decayFactor(now - Long.parseLong(time.toString()));
+        ScoreMap restored = new ScoreMap(snapshot.size());
+        snapshot.forEach((bookId, score) -> {
+            double decayed = Double.parseDouble(score.toString()) * factor;
+            if (decayed >= MIN_SCORE) {
+                restored.add(Long.parseLong(bookId.toString()), decayed);
+            }
+        });
+        lastDecayTime = now;
+        scores = restored;
+        topBookIds = restored.top(TOP_COUNT);
+        log.info("小说热度榜从快照恢复，小说数量：{}", restored.size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        decay();
+        snapshot();
+    }
+
+    private double decayFactor(long elapsedMillis) {
+        return Math.pow(0.5, Math.max(0, elapsedMillis) / halfLifeMillis);
+    }
+
+    /**
+     * 行为类型
+     */
+    public enum EventEnum {
+
+        /**
+         * 点击
+         */
+        VISIT(1),
+
+        /**
+         * 阅读章节
+         */
+        READ(2),
+
+        /**
+         * 评论
+         */
+        COMMENT(5);
+
+        /**
+         * 权重
+         */
+        private final int weight;
+
+        EventEnum(int weight) {
+            this.weight = weight;
+        }
+
+    }
+
+    /**
+     * 小说ID -> 分数 的开放寻址哈希表（线性探测），小说ID为 0 的槽位表示空
+     */
+    static final class ScoreMap {
+
+        private long[] keys;
+
+        private double[] values;
+
+        private int size;
+
+        ScoreMap(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+            this.keys = new long[capacity];
+            this.values = new double[capacity];
+        }
+
+        void add(long key, double delta) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int index = hash(key) & mask;
+            while (keys[index] != 0 && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            if (keys[index] == 0) {
+                keys[index] = key;
+                size++;
+            }
+            values[index] += delta;
+        }
+
+        /**
+         * 把衰减后的分数写入另一个分数表，忽略低于阈值的分数
+         */
+        void decayInto(ScoreMap target, double factor) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    double score = values[i] * factor;
+                    if (score >= MIN_SCORE) {
+                        target.add(keys[i], score);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 分数最高的 count 个小说ID，按分数降序排列
+         */
+        long[] top(int count) {
+            long[] topKeys = new long[Math.min(count, size)];
+            double[] topValues = new double[topKeys.length];
+            int topSize = 0;
+            for (int i = 0; i < keys.length && topKeys.length > 0; i++) {
+                if (keys[i] == 0 || topSize == topKeys.length
+                    && values[i] <= topValues[topSize - 1]) {
+                    continue;
+                }
+                // 插入排序，列表已满时挤掉分数最低的小说
+                int pos = topSize == topKeys.length ? topSize - 1 : topSize++;
+                while (pos > 0 && topValues[pos - 1] < values[i]) {
+                    topKeys[pos] = topKeys[pos - 1];
+                    topValues[pos] = topValues[pos - 1];
+                    pos--;
+                }
+                topKeys[pos] = keys[i];
+                topValues[pos] = values[i];
+            }
+            return Arrays.copyOf(topKeys, topSize);
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new double[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    add(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+    }
+
+}
@@ -0,0 +1,165 @@
+package io.github.xxyopen.novel.manager.redis;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import io.github.xxyopen.novel.core.constant.DatabaseConsts;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说点击榜 管理类
+ * <p>
+ * 点击榜保存在 Redis 有序集合中，分数为小说点击量：各节点写入数据库的点击量同时累加到有序集合中，查询前 N 名的时间复杂度为
+ * O(log n + N)。定时用数据库中点击量最高的小说重建有序集合，修正累加过程中的误差（例如没有进入有序集合的小说只累加了增量）。
+ * <p>
+ * 点击量同时按天累加到每日的有序集合中，供日榜、周榜、月榜等按时间窗口统计的排行榜使用。
+ */
+@Component
+@Slf4j
+public class BookVisitRankManager {
+
+    private static final String RECONCILE_LOCK_KEY = CacheConsts.BOOK_VISIT_RANK_KEY + "::reconcile";
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /**
+     * 每日点击量保留天数
+     */
+    private static final long DAY_VISIT_RETENTION_DAYS = 32;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final BookInfoMapper bookInfoMapper;
+
+    /**
+     * 重建有序集合的最小间隔（毫秒），多个节点在同一间隔内只有一个节点执行重建
+     */
+    private final long reconcileInterval;
+
+    public BookVisitRankManager(StringRedisTemplate stringRedisTemplate,
+        BookInfoMapper bookInfoMapper,
+        @Value("${novel.visit-rank.reconcile-interval:600000}") long reconcileInterval) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.bookInfoMapper = bookInfoMapper;
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    /**
+     * 累加小说点击量
+     *
+     * @param visitCounts 小说ID -> 增加的点击量
+     */
+    public void incrementScores(Map<Long, Long> visitCounts) {
+        byte[] rawKey = CacheConsts.BOOK_VISIT_RANK_KEY.getBytes(StandardCharsets.UTF_8);
+        byte[] rawDayKey = dayVisitKey(LocalDate.now()).getBytes(StandardCharsets.UTF_8);
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                visitCounts.forEach((bookId, count) -> {
+                    byte[] rawBookId = String.valueOf(bookId).getBytes(StandardCharsets.UTF_8);
+                    connection.zSetCommands().zIncrBy(rawKey, count, rawBookId);
+                    connection.zSetCommands().zIncrBy(rawDayKey, count, rawBookId);
+                });
+                connection.keyCommands().expire(rawDayKey,
+                    Duration.ofDays(DAY_VISIT_RETENTION_DAYS).toSeconds());
+                return null;
+            });
+        } catch (Exception e) {
+            // 点击量已经写入数据库，这里失败只影响排行榜的实时性，下次重建时修正
+            log.error("小说点击榜更新失败：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 查询点击量最高的小说ID列表
+     *
+     * @param count 数量
+     * @return 按点击量降序排列的小说ID列表，排行榜还没有建立时返回空列表
+     */
+    public List<Long> listTopBookIds(int count) {
+        Set<String> bookIds = stringRedisTemplate.opsForZSet()
+            .reverseRange(CacheConsts.BOOK_VISIT_RANK_KEY, 0, count - 1L);
+        if (Objects.isNull(bookIds)) {
+            return Collections.emptyList();
+        }
+        return bookIds.stream().map(Long::valueOf).toList();
+    }
+
+    /**
+     * 查询某一天所有小说的点击量
+     *
+     * @return 小说ID -> 当天的点击量
+     */
+    public Map<Long, Long> listDayVisitCounts(LocalDate day) {
+        Set<TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet()
+            .rangeWithScores(dayVisitKey(day), 0, -1);
+        if (Objects.isNull(tuples)) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Long> visitCounts = new HashMap<>(tuples.size() * 2);
+        for (TypedTuple<String> tuple : tuples) {
+            if (tuple.getValue() != null && tuple.getScore() != null) {
+                visitCounts.put(Long.valueOf(tuple.getValue()), tuple.getScore().longValue());
+            }
+        }
+        return visitCounts;
+    }
+
+    /**
+     * 用数据库中点击量最高的小说重建排行榜
+     */
+    @Scheduled(fixedDelayString = "${novel.visit-rank.reconcile-interval:600000}")
+    public void reconcile() {
+        Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY,
+            "1", Duration.ofMillis(reconcileInterval));
+        if (!Boolean.TRUE.equals(acquired)) {
+            return;
+        }
+        try {
+            QueryWrapper<BookInfo> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select(DatabaseConsts.CommonColumnEnum.ID.getName(),
+                    DatabaseConsts.BookTable.COLUMN_VISIT_COUNT)
+                .gt(DatabaseConsts.BookTable.COLUMN_WORD_COUNT, 0)
+                .orderByDesc(DatabaseConsts.BookTable.COLUMN_VISIT_COUNT)
+                .last(DatabaseConsts.SqlEnum.LIMIT_1000.getSql());
+            Set<TypedTuple<String>> tuples = bookInfoMapper.selectList(queryWrapper).stream()
+                .map(v -> new DefaultTypedTuple<>(String.valueOf(v.getId()),
+                    v.getVisitCount().doubleValue()))
+                .collect(Collectors.toSet());
+            if (tuples.isEmpty()) {
+                return;
+            }
+            // 先写入临时 key 再替换，重建过程中查询不受影响
+            String tmpKey = CacheConsts.BOOK_VISIT_RANK_KEY + "::tmp";
+            stringRedisTemplate.delete(tmpKey);
+            stringRedisTemplate.opsForZSet().add(tmpKey, tuples);
+            stringRedisTemplate.rename(tmpKey, CacheConsts.BOOK_VISIT_RANK_KEY);
+        } catch (Exception e) {
+            log.error("小说点击榜重建失败：{}", e.getMessage(), e);
+            stringRedisTemplate.delete(RECONCILE_LOCK_KEY);
+        }
+    }
+
+    private static String dayVisitKey(LocalDate day) {
+        return CacheConsts.BOOK_DAY_VISIT_KEY + day.format(DAY_FORMATTER);
+    }
+
+}
@@ -0,0 +1,165 @@
+package io.github.xxyopen.novel.manager.redis;
+
+import io.github.xxyopen.novel.core.common.constant.ErrorCodeEnum;
+import io.github.xxyopen.novel.core.common.exception.BusinessException;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 小说访客 管理类
+ * <p>
+ * 每本小说每天的独立访客数使用 Redis HyperLogLog 统计（每个 key 最多占用 12KB，误差约 0.81%），访客按用户ID或IP区分，
+ * 同一访客重复点击只计一次。访客先在内存中去重，定时通过管道批量 PFADD，点击时不访问 Redis。
+ * <p>
+ * 写入时整体替换暂存的访客（读写锁保证替换后不会再有访客写入旧的暂存表），暂存的访客数随暂存表一起替换。
+ */
+@Component
+@Slf4j
+public class BookVisitorManager {
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 访客数据保留天数
+     */
+    private final int retentionDays;
+
+    /**
+     * 内存中最多暂存的访客数，超过后丢弃新的访客直到下次写入
+     */
+    private final int maxPendingVisitors;
+
+    /**
+     * 记录访客时持有读锁，替换暂存表时持有写锁
+     */
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    /**
+     * 待写入的访客
+     */
+    private volatile PendingVisitors pending = new PendingVisitors();
+
+    public BookVisitorManager(StringRedisTemplate stringRedisTemplate,
+        @Value("${novel.visitor.retention-days:30}") int retentionDays,
+        @Value("${novel.visitor.max-pending:100000}") int maxPendingVisitors) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.retentionDays = retentionDays;
+        this.maxPendingVisitors = maxPendingVisitors;
+    }
+
+    /**
+     * 记录小说访客
+     *
+     * @param bookId  小说ID
+     * @param visitor 访客标识（用户ID或IP）
+     */
+    public void addVisitor(Long bookId, String visitor) {
+        swapLock.readLock().lock();
+        try {
+            PendingVisitors current = pending;
+            if (current.count.get() >= maxPendingVisitors) {
+                return;
+            }
+            if (current.visitors.computeIfAbsent(visitorKey(bookId, LocalDate.now()),
+                k -> ConcurrentHashMap.newKeySet()).add(visitor)) {
+                current.count.incrementAndGet();
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询小说最近几天（包含今天）的独立访客数（估算值，多天内重复访问的访客只计一次，不包含还未写入 Redis 的访客）
+     *
+     * @param days 天数，1 到访客数据保留天数之间
+     */
+    public long countVisitors(Long bookId, int days) {
+        if (days < 1 || days > retentionDays) {
+            throw new BusinessException(ErrorCodeEnum.USER_REQUEST_PARAM_ERROR);
+        }
+        LocalDate today = LocalDate.now();
+        String[] keys = new String[days];
+        for (int i = 0; i < days; i++) {
+            keys[i] = visitorKey(bookId, today.minusDays(i));
+        }
+        Long count = stringRedisTemplate.opsForHyperLogLog().size(keys);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 把暂存的访客批量写入 Redis
+     */
+    @Scheduled(fixedDelayString = "${novel.visitor.flush-interval:5000}")
+    public synchronized void flush() {
+        Map<String, Set<String>> visitors;
+        swapLock.writeLock().lock();
+        try {
+            if (pending.visitors.isEmpty()) {
+                return;
+            }
+            visitors = pending.visitors;
+            pending = new PendingVisitors();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        long ttl = retentionDays * 24L * 60 * 60;
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                visitors.forEach((key, keyVisitors) -> pfAdd(connection, key, keyVisitors, ttl));
+                return null;
+            });
+        } catch (Exception e) {
+            // 访客数只用于统计，写入失败时直接丢弃
+            log.error("小说访客写入失败：{}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static void pfAdd(RedisConnection connection, String key, Set<String> visitors,
+        long ttl) {
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        byte[][] rawVisitors = visitors.stream().map(v -> v.getBytes(StandardCharsets.UTF_8))
+            .toArray(byte[][]::new);
+        connection.hyperLogLogCommands().pfAdd(rawKey, rawVisitors);
+        connection.keyCommands().expire(rawKey, ttl);
+    }
+
+    private static String visitorKey(Long bookId, LocalDate day) {
+        return CacheConsts.BOOK_VISITOR_CACHE_KEY + day.format(DAY_FORMATTER) + "::" + bookId;
+    }
+
+    /**
+     * 暂存的访客：Redis key -> 访客，以及访客总数
+     */
+    private static final class PendingVisitors {
+
+        private final Map<String, Set<String>> visitors = new ConcurrentHashMap<>();
+
+        private final AtomicInteger count = new AtomicInteger();
+
+    }
+
+}
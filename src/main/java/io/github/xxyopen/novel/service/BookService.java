@@ -8,7 +8,6 @@ import io.github.xxyopen.novel.dto.req.ChapterUpdateReqDto;
 import io.github.xxyopen.novel.dto.req.UserCommentReqDto;
 import io.github.xxyopen.novel.dto.resp.*;
 
-import java.security.NoSuchAlgorithmException;
 import java.util.List;
 
 /**
@@ -26,6 +25,24 @@ public interface BookService {
      */
     RestResp<List<BookRankRespDto>> listVisitRankBooks();
 
+    /**
+     * 小说热度榜查询
+     *
+     * @return 小说热度排行列表
+     */
+    RestResp<List<BookRankRespDto>> listTrendingRankBooks();
+
+    /**
+     * 小说周期排行榜查询
+     *
+     * @param period        统计周期 day-日榜 week-周榜 month-月榜
+     * @param categoryId    类别ID
+     * @param workDirection 作品方向
+     * @return 小说排行列表
+     */
+    RestResp<List<BookRankRespDto>> listPeriodRankBooks(String period, Long categoryId,
+        Integer workDirection);
+
     /**
      * 小说新书榜查询
      *
@@ -70,15 +87,25 @@ public interface BookService {
      * @param bookId 小说ID
      * @return 小说信息列表
      */
-    RestResp<List<BookInfoRespDto>> listRecBooks(Long bookId) throws NoSuchAlgorithmException;
+    RestResp<List<BookInfoRespDto>> listRecBooks(Long bookId);
 
     /**
      * 增加小说点击量
      *
-     * @param bookId 小说ID
+     * @param bookId  小说ID
+     * @param visitor 访客标识（用户ID或IP），用于统计独立访客数
      * @return 成功状态
      */
-    RestResp<Void> addVisitCount(Long bookId);
+    RestResp<Void> addVisitCount(Long bookId, String visitor);
+
+    /**
+     * 小说独立访客数查询
+     *
+     * @param bookId 小说ID
+     * @param days   统计最近几天（包含今天）的访客，默认 1
+     * @return 独立访客数（估算值）
+     */
+    RestResp<Long> getVisitorCount(Long bookId, Integer days);
 
     /**
      * 获取上一章节ID
@@ -2,8 +2,10 @@ package io.github.xxyopen.novel.service;
 
 import io.github.xxyopen.novel.core.common.resp.PageRespDto;
 import io.github.xxyopen.novel.core.common.resp.RestResp;
+import io.github.xxyopen.novel.core.constant.CacheConsts;
 import io.github.xxyopen.novel.dto.req.BookSearchReqDto;
 import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
+import org.springframework.cache.annotation.Cacheable;
 
 /**
  * 搜索 服务类
@@ -17,8 +19,11 @@ public interface SearchService {
      * 小说搜索
      *
      * @param condition 搜索条件
-     * @return 搜索结果
+     * @return 搜索结果（短时间缓存在本地，任意小说信息改变后失效）
      */
+    @Cacheable(cacheManager = CacheConsts.CAFFEINE_CACHE_MANAGER,
+        value = CacheConsts.BOOK_SEARCH_RESULT_CACHE_NAME,
+        keyGenerator = CacheConsts.BOOK_SEARCH_KEY_GENERATOR, unless = "!#result.ok")
     RestResp<PageRespDto<BookInfoRespDto>> searchBooks(BookSearchReqDto condition);
 
 }
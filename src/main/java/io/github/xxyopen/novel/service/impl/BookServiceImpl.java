@@ -7,6 +7,7 @@ import io.github.xxyopen.novel.core.annotation.Key;
 import io.github.xxyopen.novel.core.annotation.Lock;
 import io.github.xxyopen.novel.core.auth.UserHolder;
 import io.github.xxyopen.novel.core.common.constant.ErrorCodeEnum;
+import io.github.xxyopen.novel.core.common.exception.BusinessException;
 import io.github.xxyopen.novel.core.common.req.PageReqDto;
 import io.github.xxyopen.novel.core.common.resp.PageRespDto;
 import io.github.xxyopen.novel.core.common.resp.RestResp;
@@ -16,13 +17,18 @@ import io.github.xxyopen.novel.dao.mapper.BookChapterMapper;
 import io.github.xxyopen.novel.dao.mapper.BookCommentMapper;
 import io.github.xxyopen.novel.dao.mapper.BookContentMapper;
 import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import io.github.xxyopen.novel.dto.BookChapterDirectoryDto;
 import io.github.xxyopen.novel.dto.req.ChapterAddReqDto;
 import io.github.xxyopen.novel.dto.req.ChapterUpdateReqDto;
 import io.github.xxyopen.novel.dto.req.UserCommentReqDto;
 import io.github.xxyopen.novel.dto.resp.*;
 import io.github.xxyopen.novel.manager.cache.*;
+import io.github.xxyopen.novel.manager.dao.BookVisitCountManager;
 import io.github.xxyopen.novel.manager.dao.UserDaoManager;
 import io.github.xxyopen.novel.manager.mq.AmqpMsgManager;
+import io.github.xxyopen.novel.manager.redis.BookTrendingManager;
+import io.github.xxyopen.novel.manager.redis.BookTrendingManager.EventEnum;
+import io.github.xxyopen.novel.manager.redis.BookVisitorManager;
 import io.github.xxyopen.novel.service.BookService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,10 +36,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -52,12 +57,22 @@ public class BookServiceImpl implements BookService {
 
     private final BookRankCacheManager bookRankCacheManager;
 
+    private final BookRankSnapshotManager bookRankSnapshotManager;
+
+    private final BookCoReadManager bookCoReadManager;
+
+    private final BookSimilarityManager bookSimilarityManager;
+
     private final BookInfoCacheManager bookInfoCacheManager;
 
     private final BookChapterCacheManager bookChapterCacheManager;
 
     private final BookContentCacheManager bookContentCacheManager;
 
+    private final BookIdFilterManager bookIdFilterManager;
+
+    private final ChapterPrefetchManager chapterPrefetchManager;
+
     private final BookInfoMapper bookInfoMapper;
 
     private final BookChapterMapper bookChapterMapper;
@@ -68,6 +83,12 @@ public class BookServiceImpl implements BookService {
 
     private final UserDaoManager userDaoManager;
 
+    private final BookVisitCountManager bookVisitCountManager;
+
+    private final BookVisitorManager bookVisitorManager;
+
+    private final BookTrendingManager bookTrendingManager;
+
     private final AmqpMsgManager amqpMsgManager;
 
     private static final Integer REC_BOOK_COUNT = 4;
@@ -77,6 +98,23 @@ public class BookServiceImpl implements BookService {
         return RestResp.ok(bookRankCacheManager.listVisitRankBooks());
     }
 
+    @Override
+    public RestResp<List<BookRankRespDto>> listTrendingRankBooks() {
+        return RestResp.ok(bookRankCacheManager.listTrendingRankBooks());
+    }
+
+    @Override
+    public RestResp<List<BookRankRespDto>> listPeriodRankBooks(String period, Long categoryId,
+        Integer workDirection) {
+        BookRankSnapshotManager.PeriodEnum periodEnum = BookRankSnapshotManager.PeriodEnum.of(
+            period);
+        if (Objects.isNull(periodEnum)) {
+            throw new BusinessException(ErrorCodeEnum.USER_REQUEST_PARAM_ERROR);
+        }
+        return RestResp.ok(
+            bookRankSnapshotManager.listRankBooks(periodEnum, categoryId, workDirection));
+    }
+
     @Override
     public RestResp<List<BookRankRespDto>> listNewestRankBooks() {
         return RestResp.ok(bookRankCacheManager.listNewestRankBooks());
@@ -101,50 +139,80 @@ public class BookServiceImpl implements BookService {
         BookChapterRespDto bookChapter = bookChapterCacheManager.getChapter(
             bookInfo.getLastChapterId());
 
-        // 查询章节内容
-        String content = bookContentCacheManager.getBookContent(bookInfo.getLastChapterId());
+        // 查询章节内容摘要
+        String contentSummary = bookContentCacheManager.getBookContentSummary(
+            bookInfo.getLastChapterId());
 
-        // 查询章节总数
-        QueryWrapper<BookChapter> chapterQueryWrapper = new QueryWrapper<>();
-        chapterQueryWrapper.eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, bookId);
-        Long chapterTotal = bookChapterMapper.selectCount(chapterQueryWrapper);
+        // 从章节目录中查询章节总数
+        long chapterTotal = bookChapterCacheManager.getChapterDirectory(bookId).size();
 
         // 组装数据并返回
         return RestResp.ok(BookChapterAboutRespDto.builder()
             .chapterInfo(bookChapter)
             .chapterTotal(chapterTotal)
-            .contentSummary(content.substring(0, 30))
+            .contentSummary(contentSummary)
             .build());
     }
 
     @Override
-    public RestResp<List<BookInfoRespDto>> listRecBooks(Long bookId)
-        throws NoSuchAlgorithmException {
-        Long categoryId = bookInfoCacheManager.getBookInfo(bookId).getCategoryId();
-        List<Long> lastUpdateIdList = bookInfoCacheManager.getLastUpdateIdList(categoryId);
-        List<BookInfoRespDto> respDtoList = new ArrayList<>();
-        List<Integer> recIdIndexList = new ArrayList<>();
-        int count = 0;
-        Random rand = SecureRandom.getInstanceStrong();
-        while (count < REC_BOOK_COUNT) {
-            int recIdIndex = rand.nextInt(lastUpdateIdList.size());
-            if (!recIdIndexList.contains(recIdIndex)) {
-                recIdIndexList.add(recIdIndex);
-                bookId = lastUpdateIdList.get(recIdIndex);
-                BookInfoRespDto bookInfo = bookInfoCacheManager.getBookInfo(bookId);
-                respDtoList.add(bookInfo);
-                count++;
+    public RestResp<List<BookInfoRespDto>> listRecBooks(Long bookId) {
+        // 优先推荐同读小说
+        List<Long> recIdList = new ArrayList<>(REC_BOOK_COUNT);
+        long[] neighborIds = bookCoReadManager.getNeighbors(bookId);
+        for (int i = 0; i < neighborIds.length && recIdList.size() < REC_BOOK_COUNT; i++) {
+            recIdList.add(neighborIds[i]);
+        }
+        if (recIdList.size() < REC_BOOK_COUNT) {
+            // 同读数据不足时（例如新书），补充内容相似的小说
+            for (Long similarId : bookSimilarityManager.listSimilarBookIds(bookId,
+                REC_BOOK_COUNT)) {
+                if (recIdList.size() < REC_BOOK_COUNT && !recIdList.contains(similarId)) {
+                    recIdList.add(similarId);
+                }
+            }
+        }
+        if (recIdList.size() < REC_BOOK_COUNT) {
+            // 仍然不足时，从同类别最近更新的小说中随机补充
+            Long categoryId = bookInfoCacheManager.getBookInfo(bookId).getCategoryId();
+            List<Long> lastUpdateIdList = new ArrayList<>(
+                bookInfoCacheManager.getLastUpdateIdList(categoryId));
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < lastUpdateIdList.size() && recIdList.size() < REC_BOOK_COUNT;
+                i++) {
+                Collections.swap(lastUpdateIdList, i, random.nextInt(i, lastUpdateIdList.size()));
+                Long recId = lastUpdateIdList.get(i);
+                if (!recId.equals(bookId) && !recIdList.contains(recId)) {
+                    recIdList.add(recId);
+                }
             }
         }
-        return RestResp.ok(respDtoList);
+        // 批量查询推荐小说信息
+        Map<Long, BookInfoRespDto> bookInfoMap = bookInfoCacheManager.getBookInfos(recIdList);
+        return RestResp.ok(recIdList.stream().map(bookInfoMap::get).filter(Objects::nonNull)
+            .toList());
     }
 
     @Override
-    public RestResp<Void> addVisitCount(Long bookId) {
-        bookInfoMapper.addVisitCount(bookId);
+    public RestResp<Void> addVisitCount(Long bookId, String visitor) {
+        // 忽略不存在的小说ID，避免随机ID占用内存中的点击量、访客和热度数据
+        if (!bookIdFilterManager.isKnownBookId(bookId)) {
+            return RestResp.ok();
+        }
+        bookVisitCountManager.addVisitCount(bookId);
+        bookVisitorManager.addVisitor(bookId, visitor);
+        bookTrendingManager.addEvent(bookId, EventEnum.VISIT);
         return RestResp.ok();
     }
 
+    @Override
+    public RestResp<Long> getVisitorCount(Long bookId, Integer days) {
+        if (!bookIdFilterManager.mightExistBookId(bookId)) {
+            return RestResp.ok(0L);
+        }
+        return RestResp.ok(
+            bookVisitorManager.countVisitors(bookId, Objects.requireNonNullElse(days, 1)));
+    }
+
     @Override
     public RestResp<Long> getPreChapterId(Long chapterId) {
         // 查询小说ID 和 章节号
@@ -152,17 +220,9 @@ public class BookServiceImpl implements BookService {
         Long bookId = chapter.getBookId();
         Integer chapterNum = chapter.getChapterNum();
 
-        // 查询上一章信息并返回章节ID
-        QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, bookId)
-            .lt(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM, chapterNum)
-            .orderByDesc(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM)
-            .last(DatabaseConsts.SqlEnum.LIMIT_1.getSql());
+        // 从章节目录中查询上一章ID
         return RestResp.ok(
-            Optional.ofNullable(bookChapterMapper.selectOne(queryWrapper))
-                .map(BookChapter::getId)
-                .orElse(null)
-        );
+            bookChapterCacheManager.getChapterDirectory(bookId).getPreId(chapterId, chapterNum));
     }
 
     @Override
@@ -172,30 +232,23 @@ public class BookServiceImpl implements BookService {
         Long bookId = chapter.getBookId();
         Integer chapterNum = chapter.getChapterNum();
 
-        // 查询下一章信息并返回章节ID
-        QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, bookId)
-            .gt(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM, chapterNum)
-            .orderByAsc(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM)
-            .last(DatabaseConsts.SqlEnum.LIMIT_1.getSql());
+        // 从章节目录中查询下一章ID
         return RestResp.ok(
-            Optional.ofNullable(bookChapterMapper.selectOne(queryWrapper))
-                .map(BookChapter::getId)
-                .orElse(null)
-        );
+            bookChapterCacheManager.getChapterDirectory(bookId).getNextId(chapterId, chapterNum));
     }
 
     @Override
     public RestResp<List<BookChapterRespDto>> listChapters(Long bookId) {
-        QueryWrapper<BookChapter> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq(DatabaseConsts.BookChapterTable.COLUMN_BOOK_ID, bookId)
-            .orderByAsc(DatabaseConsts.BookChapterTable.COLUMN_CHAPTER_NUM);
-        return RestResp.ok(bookChapterMapper.selectList(queryWrapper).stream()
-            .map(v -> BookChapterRespDto.builder()
-                .id(v.getId())
-                .chapterName(v.getChapterName())
-                .isVip(v.getIsVip())
-                .build()).toList());
+        BookChapterDirectoryDto directory = bookChapterCacheManager.getChapterDirectory(bookId);
+        List<BookChapterRespDto> chapters = new ArrayList<>(directory.size());
+        for (int i = 0; i < directory.size(); i++) {
+            chapters.add(BookChapterRespDto.builder()
+                .id(directory.getId(i))
+                .chapterName(directory.getChapterName(i))
+                .isVip(directory.getIsVip(i))
+                .build());
+        }
+        return RestResp.ok(chapters);
     }
 
     @Override
@@ -222,6 +275,9 @@ public class BookServiceImpl implements BookService {
         bookComment.setCreateTime(LocalDateTime.now());
         bookComment.setUpdateTime(LocalDateTime.now());
         bookCommentMapper.insert(bookComment);
+        if (bookIdFilterManager.isKnownBookId(dto.getBookId())) {
+            bookTrendingManager.addEvent(dto.getBookId(), EventEnum.COMMENT);
+        }
         return RestResp.ok();
     }
 
@@ -311,6 +367,9 @@ public class BookServiceImpl implements BookService {
         newBookChapter.setCreateTime(LocalDateTime.now());
         newBookChapter.setUpdateTime(LocalDateTime.now());
         bookChapterMapper.insert(newBookChapter);
+        bookIdFilterManager.addChapterId(newBookChapter.getId());
+        //  c) 追加到章节目录缓存
+        bookChapterCacheManager.addToChapterDirectory(newBookChapter);
 
         // 2) 保存章节内容到小说内容表
         BookContent bookContent = new BookContent();
@@ -319,6 +378,8 @@ public class BookServiceImpl implements BookService {
         bookContent.setCreateTime(LocalDateTime.now());
         bookContent.setUpdateTime(LocalDateTime.now());
         bookContentMapper.insert(bookContent);
+        bookContentCacheManager.cachePutBookContentSummary(newBookChapter.getId(),
+            dto.getChapterContent());
 
         // 3) 更新小说表最新章节信息和小说总字数信息
         //  a) 更新小说表关于最新章节的信息
@@ -388,17 +449,15 @@ public class BookServiceImpl implements BookService {
         List<BookComment> comments = bookCommentPage.getRecords();
         if (!CollectionUtils.isEmpty(comments)) {
             List<Long> bookIds = comments.stream().map(BookComment::getBookId).toList();
-            QueryWrapper<BookInfo> bookInfoQueryWrapper = new QueryWrapper<>();
-            bookInfoQueryWrapper.in(DatabaseConsts.CommonColumnEnum.ID.getName(), bookIds);
-            Map<Long, BookInfo> bookInfoMap = bookInfoMapper.selectList(bookInfoQueryWrapper).stream()
-                .collect(Collectors.toMap(BookInfo::getId, Function.identity()));
+            Map<Long, BookInfoRespDto> bookInfoMap = bookInfoCacheManager.getBookInfos(bookIds);
             return RestResp.ok(PageRespDto.of(pageReqDto.getPageNum(), pageReqDto.getPageSize(), page.getTotal(),
-                comments.stream().map(v -> UserCommentRespDto.builder()
-                    .commentContent(v.getCommentContent())
-                    .commentBook(bookInfoMap.get(v.getBookId()).getBookName())
-                    .commentBookPic(bookInfoMap.get(v.getBookId()).getPicUrl())
-                    .commentTime(v.getCreateTime())
-                    .build()).toList()));
+                comments.stream().filter(v -> bookInfoMap.containsKey(v.getBookId()))
+                    .map(v -> UserCommentRespDto.builder()
+                        .commentContent(v.getCommentContent())
+                        .commentBook(bookInfoMap.get(v.getBookId()).getBookName())
+                        .commentBookPic(bookInfoMap.get(v.getBookId()).getPicUrl())
+                        .commentTime(v.getCreateTime())
+                        .build()).toList()));
 
         }
         return RestResp.ok(PageRespDto.of(pageReqDto.getPageNum(), pageReqDto.getPageSize(), page.getTotal(),
@@ -443,10 +502,13 @@ public class BookServiceImpl implements BookService {
             newBookInfo.setLastChapterUpdateTime(lastChapterUpdateTime);
         }
         bookInfoMapper.updateById(newBookInfo);
-        // 6.清理章节信息缓存
+        // 6.清理章节信息缓存，并从章节目录缓存中移除
         bookChapterCacheManager.evictBookChapterCache(chapterId);
+        bookChapterCacheManager.removeFromChapterDirectory(chapter.getBookId(), chapterId,
+            chapter.getChapterNum());
         // 7.清理章节内容缓存
         bookContentCacheManager.evictBookContentCache(chapterId);
+        bookIdFilterManager.removeChapterId(chapterId);
         // 8.清理小说信息缓存
         bookInfoCacheManager.evictBookInfoCache(chapter.getBookId());
         // 9.发送小说信息更新的 MQ 消息
@@ -500,10 +562,13 @@ public class BookServiceImpl implements BookService {
             newBookInfo.setLastChapterUpdateTime(LocalDateTime.now());
         }
         bookInfoMapper.updateById(newBookInfo);
-        // 6.清理章节信息缓存
+        // 6.清理章节信息缓存，并更新章节目录缓存
         bookChapterCacheManager.evictBookChapterCache(chapterId);
-        // 7.清理章节内容缓存
+        bookChapterCacheManager.updateChapterDirectory(chapter.getBookId(), chapterId,
+            chapter.getChapterNum(), dto.getChapterName(), dto.getIsVip());
+        // 7.清理章节内容缓存，并缓存新的内容摘要
         bookContentCacheManager.evictBookContentCache(chapterId);
+        bookContentCacheManager.cachePutBookContentSummary(chapterId, dto.getChapterContent());
         // 8.清理小说信息缓存
         bookInfoCacheManager.evictBookInfoCache(chapter.getBookId());
         // 9.发送小说信息更新的 MQ 消息
@@ -523,6 +588,12 @@ public class BookServiceImpl implements BookService {
         // 查询小说信息
         BookInfoRespDto bookInfo = bookInfoCacheManager.getBookInfo(bookChapter.getBookId());
 
+        // 后台预取下一章
+        chapterPrefetchManager.prefetchNext(bookChapter);
+
+        // 累加小说热度
+        bookTrendingManager.addEvent(bookChapter.getBookId(), EventEnum.READ);
+
         // 组装数据并返回
         return RestResp.ok(BookContentAboutRespDto.builder()
             .bookInfo(bookInfo)
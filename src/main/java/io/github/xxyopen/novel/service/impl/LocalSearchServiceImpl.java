@@ -0,0 +1,55 @@
+package io.github.xxyopen.novel.service.impl;
+
+import io.github.xxyopen.novel.core.common.resp.PageRespDto;
+import io.github.xxyopen.novel.core.common.resp.RestResp;
+import io.github.xxyopen.novel.dto.req.BookSearchReqDto;
+import io.github.xxyopen.novel.dto.resp.BookInfoRespDto;
+import io.github.xxyopen.novel.manager.cache.BookInfoCacheManager;
+import io.github.xxyopen.novel.manager.cache.BookSearchIndexManager;
+import io.github.xxyopen.novel.service.SearchService;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/**
+ * 本地索引搜索 服务实现类
+ * <p>
+ * 数据库搜索模式下优先使用本地倒排索引搜索，只按小说ID批量查询小说信息缓存；索引还没有建立完成时使用数据库搜索
+ */
+@ConditionalOnExpression("!${spring.elasticsearch.enabled:true}"
+    + " and ${novel.search.local-index.enabled:true}")
+@Primary
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LocalSearchServiceImpl implements SearchService {
+
+    private final BookSearchIndexManager bookSearchIndexManager;
+
+    private final DbSearchServiceImpl dbSearchService;
+
+    private final BookInfoCacheManager bookInfoCacheManager;
+
+    @Override
+    public RestResp<PageRespDto<BookInfoRespDto>> searchBooks(BookSearchReqDto condition) {
+        if (!bookSearchIndexManager.isReady()) {
+            return dbSearchService.searchBooks(condition);
+        }
+        PageRespDto<Long> page = bookSearchIndexManager.search(condition);
+        List<Long> bookIds = List.copyOf(page.getList());
+        Map<Long, BookInfoRespDto> bookInfos = bookInfoCacheManager.getBookInfos(bookIds);
+        List<BookInfoRespDto> list = bookIds.stream()
+            .map(bookInfos::get)
+            .filter(Objects::nonNull)
+            .toList();
+        return RestResp.ok(
+            PageRespDto.of(condition.getPageNum(), condition.getPageSize(), page.getTotal(),
+                list));
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.xxyopen.novel.core.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+/**
+ * 热点 key 本地副本缓存测试：未命中加载不广播失效通知，热点 key 写入本地副本
+ */
+class HotKeyCacheTest {
+
+    private final ConcurrentMapCache remoteCache = new ConcurrentMapCache("test", false);
+
+    private final ConcurrentMapCache replicaCache = new ConcurrentMapCache("test", false);
+
+    private final CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+
+    private final HotKeyCache cache = new HotKeyCache("test", remoteCache, replicaCache,
+        new HotKeyDetector(1, 60_000), invalidationBus);
+
+    @Test
+    void loadFillsRemoteWithoutBroadcast() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get(1L, () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        assertThat(cache.get(1L, () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+
+        assertThat(loads).hasValue(1);
+        assertThat(remoteCache.get(1L, String.class)).isEqualTo("v1");
+        verify(invalidationBus, never()).publishEvict(any(), any());
+    }
+
+    @Test
+    void nullIsNotCached() {
+        assertThat(cache.<String>get(2L, () -> null)).isNull();
+
+        assertThat(remoteCache.get(2L)).isNull();
+        assertThat(replicaCache.get(2L)).isNull();
+    }
+
+    @Test
+    void hotKeyIsPromotedToReplica() {
+        remoteCache.put(3L, "v");
+        // 采样率 1/8，阈值 1，访问足够多次后成为热点
+        for (int i = 0; i < 200 && replicaCache.get(3L) == null; i++) {
+            cache.get(3L);
+        }
+
+        assertThat(replicaCache.get(3L, String.class)).isEqualTo("v");
+    }
+
+    @Test
+    void putBroadcastsEvict() {
+        replicaCache.put(4L, "old");
+
+        cache.put(4L, "new");
+
+        assertThat(remoteCache.get(4L, String.class)).isEqualTo("new");
+        assertThat(replicaCache.get(4L)).isNull();
+        verify(invalidationBus).publishEvict("test", 4L);
+    }
+
+}
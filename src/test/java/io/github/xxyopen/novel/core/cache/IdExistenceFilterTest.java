@@ -0,0 +1,122 @@
+package io.github.xxyopen.novel.core.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ID 存在性过滤器测试：水位线以下的判断、水位线以上的放行和增量同步
+ */
+class IdExistenceFilterTest {
+
+    /**
+     * 模拟数据库中的 ID，2000 以内的偶数
+     */
+    private final NavigableSet<Long> table = new ConcurrentSkipListSet<>();
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 2; id <= 2000; id += 2) {
+            table.add(id);
+        }
+    }
+
+    @Test
+    void allIdsPassBeforeLoad() {
+        IdExistenceFilter filter = newFilter(60_000);
+
+        assertThat(filter.mightExist(1L)).isTrue();
+        assertThat(filter.isLoaded(1L)).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidIds() {
+        IdExistenceFilter filter = newFilter(60_000);
+        filter.load();
+
+        assertThat(filter.mightExist(null)).isFalse();
+        assertThat(filter.mightExist(0L)).isFalse();
+        assertThat(filter.mightExist(-2L)).isFalse();
+    }
+
+    @Test
+    void rejectsMissingIdsBelowWatermark() {
+        IdExistenceFilter filter = newFilter(60_000);
+        filter.load();
+
+        for (long id = 2; id <= 2000; id += 2) {
+            assertThat(filter.mightExist(id)).isTrue();
+        }
+        // 水位线 2000，减去同步回退数量以内的奇数一定不存在（忽略布隆过滤器的误判）
+        long rejected = 0;
+        for (long id = 1; id <= 2000 - IdExistenceFilter.SYNC_OVERLAP; id += 2) {
+            if (!filter.mightExist(id)) {
+                rejected++;
+            }
+        }
+        assertThat(rejected).isGreaterThan(490);
+    }
+
+    @Test
+    void neverRejectsIdsNearOrAboveWatermark() {
+        IdExistenceFilter filter = newFilter(60_000);
+        filter.load();
+        // 其它节点新增的 ID，同步间隔内还没有加载
+        table.add(2002L);
+
+        assertThat(filter.mightExist(2002L)).isTrue();
+        assertThat(filter.mightExist(5000L)).isTrue();
+        assertThat(filter.mightExist(2000 - IdExistenceFilter.SYNC_OVERLAP + 1)).isTrue();
+    }
+
+    @Test
+    void syncLoadsIdsAboveWatermark() {
+        IdExistenceFilter filter = newFilter(0);
+        filter.load();
+        table.add(2002L);
+
+        // 严格判断时触发增量同步，同步后新增的 ID 已加载，不存在的 ID 仍然返回 false
+        assertThat(filter.isLoaded(2002L)).isTrue();
+        assertThat(filter.isLoaded(2003L)).isFalse();
+        // 同步后水位线提高，新的水位线附近的 ID 仍然放行到数据库查询
+        assertThat(filter.mightExist(2003L)).isTrue();
+    }
+
+    @Test
+    void strictCheckWithoutSyncRejectsUnloadedIds() {
+        IdExistenceFilter filter = newFilter(60_000);
+        filter.load();
+        table.add(2002L);
+
+        assertThat(filter.isLoaded(2002L)).isFalse();
+        filter.add(2002L);
+        assertThat(filter.isLoaded(2002L)).isTrue();
+    }
+
+    @Test
+    void markMissingUntilAddedAgain() {
+        IdExistenceFilter filter = newFilter(60_000);
+        filter.load();
+
+        filter.markMissing(2L);
+        assertThat(filter.mightExist(2L)).isFalse();
+        assertThat(filter.isLoaded(2L)).isFalse();
+
+        filter.add(2L);
+        assertThat(filter.mightExist(2L)).isTrue();
+    }
+
+    private IdExistenceFilter newFilter(long syncInterval) {
+        return new IdExistenceFilter("test", 10_000, 0.001, this::idsAfter, syncInterval, 60,
+            1000);
+    }
+
+    private List<Long> idsAfter(long lastId) {
+        return table.tailSet(lastId, false).stream().limit(100).toList();
+    }
+
+}
@@ -0,0 +1,39 @@
+package io.github.xxyopen.novel.core.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 布隆过滤器测试
+ */
+class LongBloomFilterTest {
+
+    @Test
+    void noFalseNegatives() {
+        LongBloomFilter filter = new LongBloomFilter(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+        for (long id = 1; id <= 10_000; id++) {
+            assertThat(filter.mightContain(id)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateCloseToExpected() {
+        LongBloomFilter filter = new LongBloomFilter(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+        int falsePositives = 0;
+        for (long id = 10_001; id <= 110_000; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        // 连续的自增 ID 打散后误判率不应明显超过期望值
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+}
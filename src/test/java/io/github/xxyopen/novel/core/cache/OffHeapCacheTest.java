@@ -0,0 +1,131 @@
+package io.github.xxyopen.novel.core.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.xxyopen.novel.core.constant.CacheConsts;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 堆外缓存测试：分片复用、即将淘汰的缓存项重新写入和并发读取
+ */
+class OffHeapCacheTest {
+
+    /**
+     * 两个 100 字节的分片，每个分片放两个缓存项
+     */
+    private final OffHeapCache cache = new OffHeapCache("test", 200, 100, 0,
+        new CacheValueSerializer(CacheConsts.CodecEnum.TEXT, Integer.MAX_VALUE));
+
+    @Test
+    void putAndGet() {
+        cache.put("k0", value("k0"));
+
+        assertThat(cache.get("k0", String.class)).isEqualTo(value("k0"));
+        assertThat(cache.get("missing")).isNull();
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reusesOldestSlabWhenFull() {
+        for (int i = 0; i < 5; i++) {
+            cache.put("k" + i, value("k" + i));
+        }
+
+        // k4 写入时复用 k0、k1 所在的分片
+        assertThat(cache.get("k0")).isNull();
+        assertThat(cache.get("k1")).isNull();
+        assertThat(cache.get("k2", String.class)).isEqualTo(value("k2"));
+        assertThat(cache.get("k4", String.class)).isEqualTo(value("k4"));
+        assertThat(cache.evictionCount()).isEqualTo(2);
+        assertThat(cache.estimatedSize()).isEqualTo(3);
+    }
+
+    @Test
+    void promotesEntriesReadFromOldestSlab() {
+        cache.put("k0", value("k0"));
+        cache.put("k1", value("k1"));
+        cache.put("k2", value("k2"));
+
+        // k0 所在的分片是最旧的分片，读取后重新写入当前分片
+        assertThat(cache.get("k0", String.class)).isEqualTo(value("k0"));
+        cache.put("k3", value("k3"));
+
+        assertThat(cache.get("k0", String.class)).isEqualTo(value("k0"));
+        assertThat(cache.get("k1")).isNull();
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void skipsValuesLargerThanSlab() {
+        cache.put("big", "x".repeat(200));
+
+        assertThat(cache.get("big")).isNull();
+    }
+
+    @Test
+    void loadsOnceOnMiss() {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.get("k0", () -> {
+                loads.incrementAndGet();
+                return value("k0");
+            })).isEqualTo(value("k0"));
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void concurrentReadsNeverSeeReusedSlabData() throws Exception {
+        OffHeapCache smallCache = new OffHeapCache("test", 400, 100, 0,
+            new CacheValueSerializer(CacheConsts.CodecEnum.TEXT, Integer.MAX_VALUE));
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            // 写线程不断写入，分片被频繁复用
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    String key = "k" + i % 50;
+                    smallCache.put(key, value(key));
+                }
+                running.set(false);
+            }));
+            // 读线程读到的值要么未命中，要么一定是该 key 写入的值
+            for (int t = 0; t < 3; t++) {
+                futures.add(executor.submit(() -> {
+                    int i = 0;
+                    while (running.get()) {
+                        String key = "k" + i++ % 50;
+                        String cached = smallCache.get(key, String.class);
+                        if (cached != null) {
+                            assertThat(cached).isEqualTo(value(key));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 编码后 40 字节
+     */
+    private static String value(String key) {
+        return (key + "-").repeat(20).substring(0, 39);
+    }
+
+}
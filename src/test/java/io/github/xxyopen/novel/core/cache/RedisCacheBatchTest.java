@@ -0,0 +1,75 @@
+package io.github.xxyopen.novel.core.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.util.ByteUtils;
+
+/**
+ * Redis 缓存批量读写测试：批量读写记入缓存统计
+ */
+class RedisCacheBatchTest {
+
+    private final RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+
+    private final CacheStatisticsCollector statistics = CacheStatisticsCollector.create();
+
+    private final RedisCache cache = mock(RedisCache.class);
+
+    private final RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig();
+
+    private RedisCacheBatch batch;
+
+    @BeforeEach
+    void setUp() {
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        when(cache.getName()).thenReturn("test");
+        when(cache.getCacheConfiguration()).thenReturn(config);
+        batch = new RedisCacheBatch(connectionFactory, statistics);
+    }
+
+    @Test
+    void getAllRecordsHitsAndMisses() {
+        byte[] hit = ByteUtils.getBytes(config.getValueSerializationPair().write("v1"));
+        when(stringCommands.mGet(any(), any())).thenReturn(Arrays.asList(hit, null));
+
+        Map<Long, String> values = batch.getAll(cache, List.of(1L, 2L));
+
+        assertThat(values).containsExactly(Map.entry(1L, "v1"));
+        CacheStatistics stats = statistics.getCacheStatistics("test");
+        assertThat(stats.getGets()).isEqualTo(2);
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void putAllRecordsPutsOfNonNullValues() {
+        Map<Long, String> values = new HashMap<>();
+        values.put(1L, "v1");
+        values.put(2L, "v2");
+        values.put(3L, null);
+
+        batch.putAll(cache, values);
+
+        assertThat(statistics.getCacheStatistics("test").getPuts()).isEqualTo(2);
+    }
+
+}
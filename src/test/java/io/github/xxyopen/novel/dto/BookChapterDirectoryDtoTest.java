@@ -0,0 +1,110 @@
+package io.github.xxyopen.novel.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 小说章节目录导航测试
+ */
+class BookChapterDirectoryDtoTest {
+
+    /**
+     * 第 3 章已删除
+     */
+    private final BookChapterDirectoryDto directory = new BookChapterDirectoryDto(
+        new long[]{11, 12, 14, 15}, new int[]{1, 2, 4, 5},
+        new String[]{"第一章", "第二章", "第四章", "第五章"}, new byte[]{0, 0, 1, 1});
+
+    @Test
+    void firstAndLast() {
+        assertThat(directory.getFirstId()).isEqualTo(11L);
+        assertThat(directory.getLastId()).isEqualTo(15L);
+        assertThat(directory.getIsVip(2)).isEqualTo(1);
+    }
+
+    @Test
+    void preAndNextOfExistingChapter() {
+        assertThat(directory.getPreId(14, 4)).isEqualTo(12L);
+        assertThat(directory.getNextId(14, 4)).isEqualTo(15L);
+        assertThat(directory.getPreId(11, 1)).isNull();
+        assertThat(directory.getNextId(15, 5)).isNull();
+    }
+
+    @Test
+    void preAndNextOfDeletedChapter() {
+        // 当前章节已经不在目录中，按章节号定位前后章节
+        assertThat(directory.getPreId(13, 3)).isEqualTo(12L);
+        assertThat(directory.getNextId(13, 3)).isEqualTo(14L);
+        assertThat(directory.getPreId(10, 0)).isNull();
+        assertThat(directory.getNextId(10, 0)).isEqualTo(11L);
+        assertThat(directory.getPreId(16, 6)).isEqualTo(15L);
+        assertThat(directory.getNextId(16, 6)).isNull();
+    }
+
+    @Test
+    void indexOfFallsBackToScanOnDuplicateChapterNums() {
+        BookChapterDirectoryDto duplicated = new BookChapterDirectoryDto(
+            new long[]{21, 22, 23}, new int[]{1, 1, 1}, new String[]{"a", "b", "c"},
+            new byte[]{0, 0, 0});
+
+        assertThat(duplicated.indexOf(21, 1)).isZero();
+        assertThat(duplicated.indexOf(23, 1)).isEqualTo(2);
+        assertThat(duplicated.indexOf(24, 1)).isEqualTo(-1);
+        assertThat(duplicated.getNextId(21, 1)).isEqualTo(22L);
+    }
+
+    @Test
+    void addInsertsByChapterNum() {
+        BookChapterDirectoryDto added = directory.add(13, 3, "第三章", 1).add(16, 6, "第六章", 0);
+
+        assertThat(added.size()).isEqualTo(6);
+        assertThat(added.getPreId(13, 3)).isEqualTo(12L);
+        assertThat(added.getNextId(13, 3)).isEqualTo(14L);
+        assertThat(added.getIsVip(2)).isEqualTo(1);
+        assertThat(added.getLastId()).isEqualTo(16L);
+        // 原目录不变
+        assertThat(directory.size()).isEqualTo(4);
+    }
+
+    @Test
+    void addExistingChapterOnlyUpdatesIt() {
+        BookChapterDirectoryDto added = directory.add(12, 2, "第二章（修订）", 1);
+
+        assertThat(added.size()).isEqualTo(4);
+        assertThat(added.getChapterName(1)).isEqualTo("第二章（修订）");
+        assertThat(added.getIsVip(1)).isEqualTo(1);
+    }
+
+    @Test
+    void updateChangesNameAndVipFlag() {
+        BookChapterDirectoryDto updated = directory.update(14, 4, "第四章（修订）", 0);
+
+        assertThat(updated.getChapterName(2)).isEqualTo("第四章（修订）");
+        assertThat(updated.getIsVip(2)).isZero();
+        assertThat(directory.getChapterName(2)).isEqualTo("第四章");
+        assertThat(directory.update(13, 3, "第三章", 0)).isSameAs(directory);
+    }
+
+    @Test
+    void removeDropsChapter() {
+        BookChapterDirectoryDto removed = directory.remove(14, 4);
+
+        assertThat(removed.size()).isEqualTo(3);
+        assertThat(removed.indexOf(14, 4)).isEqualTo(-1);
+        assertThat(removed.getNextId(12, 2)).isEqualTo(15L);
+        assertThat(directory.remove(13, 3)).isSameAs(directory);
+    }
+
+    @Test
+    void emptyDirectory() {
+        BookChapterDirectoryDto empty = new BookChapterDirectoryDto(new long[0], new int[0],
+            new String[0], new byte[0]);
+
+        assertThat(empty.getFirstId()).isNull();
+        assertThat(empty.getLastId()).isNull();
+        assertThat(empty.getPreId(1, 1)).isNull();
+        assertThat(empty.getNextId(1, 1)).isNull();
+    }
+
+}
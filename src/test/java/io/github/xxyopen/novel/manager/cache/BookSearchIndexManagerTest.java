@@ -0,0 +1,139 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.github.xxyopen.novel.core.common.resp.PageRespDto;
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import io.github.xxyopen.novel.dao.mapper.BookInfoMapper;
+import io.github.xxyopen.novel.dto.req.BookSearchReqDto;
+import io.github.xxyopen.novel.manager.mq.BookChangeEvent;
+import io.github.xxyopen.novel.manager.mq.BookSearchIndexChangeEvent;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * 本地倒排索引搜索测试：倒排表求交集和小说名/作者名与简介候选的合并
+ */
+class BookSearchIndexManagerTest {
+
+    private final BookInfoMapper bookInfoMapper = mock(BookInfoMapper.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private BookSearchIndexManager manager;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        when(bookInfoMapper.selectList(any())).thenReturn(List.of(
+            book(1L, "斗破苍穹", "天蚕土豆", "这里是属于斗气的世界", 1L, 300),
+            book(2L, "武动乾坤", "天蚕土豆", "修炼一途，乃窃阴阳，夺造化，斗破虚空", 1L, 200),
+            book(3L, "遮天", "辰东", "冰冷与黑暗并存的宇宙深处", 2L, 100),
+            book(4L, "斗罗大陆", "唐家三少", "没有字数的小说不参与搜索", 1L, 0),
+            book(5L, "ABCAB", "某某", "测试", 2L, 50)));
+        // 同步和重建间隔足够长，测试期间只执行一次全量建立
+        manager = new BookSearchIndexManager(bookInfoMapper, eventPublisher, 3_600_000,
+            3_600_000);
+        manager.init();
+        for (int i = 0; i < 500 && !manager.isReady(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(manager.isReady()).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    void intersectReturnsPositionsContainingAllGrams() {
+        BookSearchIndexManager.PostingsBuilder builder = new BookSearchIndexManager.PostingsBuilder();
+        builder.add(new int[]{1, 2, 3}, 0);
+        builder.add(new int[]{2, 3}, 1);
+        builder.add(new int[]{1, 3}, 2);
+        builder.add(new int[]{-5, 1, 2, 3}, 3);
+        BookSearchIndexManager.Postings postings = builder.build();
+
+        assertThat(postings.intersect(new int[]{3})).containsExactly(0, 1, 2, 3);
+        assertThat(postings.intersect(new int[]{1, 2})).containsExactly(0, 3);
+        assertThat(postings.intersect(new int[]{2, 1, 3})).containsExactly(0, 3);
+        // 负数词项（高位字符组成的双字词项）
+        assertThat(postings.intersect(new int[]{-5, 3})).containsExactly(3);
+        assertThat(postings.intersect(new int[]{1, 4})).isEmpty();
+    }
+
+    @Test
+    void mergesTitleAndDescriptionHits() {
+        // 小说 1 小说名命中，小说 2 简介命中
+        assertThat(searchIds("斗破")).containsExactly(1L, 2L);
+        assertThat(searchIds("天蚕土豆")).containsExactly(1L, 2L);
+        assertThat(searchIds("宇宙")).containsExactly(3L);
+    }
+
+    @Test
+    void singleCharacterKeywordMatchesTitleOnly() {
+        // 小说 2 的简介包含"斗"，小说 4 没有字数
+        assertThat(searchIds("斗")).containsExactly(1L);
+    }
+
+    @Test
+    void titleCandidatesAreVerified() {
+        // "abcabc" 的所有双字词项都在 "abcab" 中，但小说名不包含关键字
+        assertThat(searchIds("abcabc")).isEmpty();
+        assertThat(searchIds("B c-A")).containsExactly(5L);
+    }
+
+    @Test
+    void filtersSortsAndPages() {
+        BookSearchReqDto condition = new BookSearchReqDto();
+        condition.setCategoryId(1);
+        condition.setSort("word_count desc");
+        condition.setPageSize(1);
+        condition.setPageNum(2);
+
+        PageRespDto<Long> page = manager.search(condition);
+
+        assertThat(page.getTotal()).isEqualTo(2);
+        assertThat(List.<Long>copyOf(page.getList())).containsExactly(2L);
+    }
+
+    @Test
+    void publishesIndexChangeAfterReload() {
+        BookInfo renamed = book(3L, "遮天（修订版）", "辰东", "冰冷与黑暗并存的宇宙深处", 2L, 100);
+        when(bookInfoMapper.selectById(3L)).thenReturn(renamed);
+
+        manager.onBookChange(new BookChangeEvent(3L));
+
+        // 全量建立和重新加载后各发布一次
+        verify(eventPublisher, timeout(5000).times(2))
+            .publishEvent(any(BookSearchIndexChangeEvent.class));
+        assertThat(searchIds("修订版")).containsExactly(3L);
+    }
+
+    private List<Long> searchIds(String keyword) {
+        BookSearchReqDto condition = new BookSearchReqDto();
+        condition.setKeyword(keyword);
+        return List.copyOf(manager.search(condition).getList());
+    }
+
+    private static BookInfo book(Long id, String bookName, String authorName, String bookDesc,
+        Long categoryId, int wordCount) {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.setId(id);
+        bookInfo.setBookName(bookName);
+        bookInfo.setAuthorName(authorName);
+        bookInfo.setBookDesc(bookDesc);
+        bookInfo.setCategoryId(categoryId);
+        bookInfo.setWordCount(wordCount);
+        return bookInfo;
+    }
+
+}
@@ -0,0 +1,80 @@
+package io.github.xxyopen.novel.manager.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.github.xxyopen.novel.dao.entity.BookInfo;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 小说内容相似度测试：MinHash 签名和 LSH 分段查找
+ */
+class BookSimilarityManagerTest {
+
+    private static final String DESC = "少年意外获得上古传承，从此踏上修仙之路，一路斩妖除魔，最终成为一代仙帝。";
+
+    @Test
+    void identicalBooksHaveIdenticalSignatures() {
+        int[] a = BookSimilarityManager.signature(book("仙帝归来", DESC, "张三"));
+        int[] b = BookSimilarityManager.signature(book("仙帝归来", DESC, "张三"));
+
+        assertThat(a).isEqualTo(b);
+    }
+
+    @Test
+    void booksWithoutFeaturesHaveNoSignature() {
+        assertThat(BookSimilarityManager.signature(new BookInfo())).isNull();
+        // 只有空白和标点
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.setBookName("，。");
+        bookInfo.setBookDesc("  ");
+        assertThat(BookSimilarityManager.signature(bookInfo)).isNull();
+    }
+
+    @Test
+    void bandLookupFindsSimilarBooksOnly() {
+        int[] original = BookSimilarityManager.signature(book("仙帝归来", DESC, "张三"));
+        int[] similar = BookSimilarityManager.signature(
+            book("仙帝归来之都市篇", DESC + "重生都市。", "李四"));
+        int[] unrelated = BookSimilarityManager.signature(
+            book("霸道总裁爱上我", "豪门千金与冷面总裁的甜宠爱情故事，误会重重终成眷属。", "王五"));
+        BookSimilarityManager.SimilarityIndex index = BookSimilarityManager.SimilarityIndex.build(
+            Map.of(1L, original, 2L, similar, 3L, unrelated));
+
+        // 小说ID按升序保存，位置 0、1、2 对应小说 1、2、3
+        assertThat(index.candidates(original)).contains(0, 1).doesNotContain(2);
+        assertThat(index.candidates(unrelated)).containsExactly(2);
+    }
+
+    @Test
+    void bandLookupReturnsAllBooksSharingABand() {
+        int[] signature = BookSimilarityManager.signature(book("仙帝归来", DESC, "张三"));
+        BookSimilarityManager.SimilarityIndex index = BookSimilarityManager.SimilarityIndex.build(
+            Map.of(5L, signature, 3L, signature.clone(), 9L, signature.clone()));
+
+        assertThat(index.candidates(signature)).containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    @Test
+    void signatureLookupAndRoundTrip() {
+        int[] signature = BookSimilarityManager.signature(book("仙帝归来", DESC, "张三"));
+        BookSimilarityManager.SimilarityIndex index = BookSimilarityManager.SimilarityIndex.build(
+            Map.of(7L, signature));
+
+        assertThat(index.getSignature(7L)).isEqualTo(signature);
+        assertThat(index.getSignature(8L)).isNull();
+        assertThat(index.toMap()).containsOnlyKeys(7L);
+        assertThat(BookSimilarityManager.SimilarityIndex.build(Map.of()).candidates(signature))
+            .isEmpty();
+    }
+
+    private static BookInfo book(String bookName, String bookDesc, String authorName) {
+        BookInfo bookInfo = new BookInfo();
+        bookInfo.setBookName(bookName);
+        bookInfo.setBookDesc(bookDesc);
+        bookInfo.setAuthorName(authorName);
+        bookInfo.setCategoryId(1L);
+        return bookInfo;
+    }
+
+}
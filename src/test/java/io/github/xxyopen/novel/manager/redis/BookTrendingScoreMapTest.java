@@ -0,0 +1,63 @@
+package io.github.xxyopen.novel.manager.redis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 小说热度分数表测试
+ */
+class BookTrendingScoreMapTest {
+
+    @Test
+    void topReturnsHighestScoresInDescendingOrder() {
+        BookTrendingManager.ScoreMap scores = new BookTrendingManager.ScoreMap(0);
+        Map<Long, Double> expected = new HashMap<>();
+        Random random = new Random(42);
+        // 超过初始容量，覆盖扩容
+        for (int i = 0; i < 5000; i++) {
+            long bookId = 1 + random.nextInt(1000);
+            double delta = random.nextInt(100) + random.nextDouble();
+            scores.add(bookId, delta);
+            expected.merge(bookId, delta, Double::sum);
+        }
+
+        long[] top = scores.top(100);
+
+        assertThat(top).containsExactly(expected.entrySet().stream()
+            .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder()))
+            .limit(100)
+            .mapToLong(Map.Entry::getKey)
+            .toArray());
+    }
+
+    @Test
+    void topWithFewerBooksThanCount() {
+        BookTrendingManager.ScoreMap scores = new BookTrendingManager.ScoreMap(0);
+        scores.add(1, 1);
+        scores.add(2, 3);
+        scores.add(3, 2);
+        scores.add(1, 5);
+
+        assertThat(scores.top(10)).containsExactly(1, 2, 3);
+        assertThat(scores.top(0)).isEmpty();
+        assertThat(new BookTrendingManager.ScoreMap(0).top(10)).isEmpty();
+    }
+
+    @Test
+    void decayDropsScoresBelowThreshold() {
+        BookTrendingManager.ScoreMap scores = new BookTrendingManager.ScoreMap(0);
+        scores.add(1, 100);
+        scores.add(2, 0.015);
+        BookTrendingManager.ScoreMap decayed = new BookTrendingManager.ScoreMap(2);
+
+        scores.decayInto(decayed, 0.5);
+
+        assertThat(decayed.top(10)).containsExactly(1);
+    }
+
+}